@@ -0,0 +1,223 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Offline stand-ins for everything the hot path talks to: Feign clients, JPA/JDBC and SMTP
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static NotificationRequest request() {
+        NotificationRequest request = new NotificationRequest();
+        request.setCustomerId(42L);
+        request.setOrderId(1001L);
+        request.setProductId(7L);
+        request.setOrderReference("ORD-2024-0001001");
+        request.setEmail("customer@example.com");
+        request.setMessage("Your order has been placed");
+        request.setAddress("221B Baker Street, London");
+        request.setPaymentMethod("UPI");
+        request.setPrice(new BigDecimal("1499.00"));
+        request.setQuantity(2);
+        request.setType(NotificationType.EMAIL);
+        return request;
+    }
+
+    static Notification notification() {
+        return NotificationConsumer.toNotification(request());
+    }
+
+    static Product product() {
+        Product product = new Product();
+        product.setProductName("Wireless Headphones");
+        return product;
+    }
+
+    static NotificationOutbox outboxRow(Notification notification, NotificationEvent event) {
+        return NotificationOutbox.builder()
+                .id(notification.getId())
+                .notificationId(notification.getId())
+                .channel(notification.getType())
+                .event(event)
+                .status(OutboxStatus.IN_FLIGHT)
+                .availableAt(LocalDateTime.now())
+                .build();
+    }
+
+    static NotificationTemplateEngine templateEngine() {
+        return new NotificationTemplateEngine(new DefaultResourceLoader(), "classpath:templates/notification/", 1000);
+    }
+
+    // Real timers on a throwaway registry, so instrumentation cost is part of the measurement
+    static NotificationMetrics metrics() {
+        return new NotificationMetrics(new SimpleMeterRegistry());
+    }
+
+    static NotificationMessageFactory messageFactory() {
+        // Benchmarks render single notifications only, so the digest path's enricher is never needed
+        return new NotificationMessageFactory(templateEngine(), metrics(), null);
+    }
+
+    static NotificationServiceImpl service(Executor executor) {
+        ProductServiceClient productClient = id -> product();
+        ConsolidationServiceClient consolidationClient = id -> new Consolidation();
+        ProductDetailsCache productCache = new ProductDetailsCache(productClient, executor, new SimpleMeterRegistry(),
+                10_000, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        NotificationEnricher enricher = new NotificationEnricher(productCache, consolidationClient, executor, 800, 800, false, metrics());
+        NotificationChannels channels = new NotificationChannels(List.of(
+                emailChannel(new InMemoryMailSender())));
+        return new NotificationServiceImpl(notificationRepository(), enricher, new NoopBatchWriter(),
+                new NoopOutboxStore(), null, channels, new NoopIdempotencyGuard(), metrics(),
+                lookupCache(), deliverySchedule(), event -> { });
+    }
+
+    // A single relay and a domain throttle too generous to hold anything back
+    static EmailChannel emailChannel(InMemoryMailSender mailSender) {
+        return new EmailChannel(mailSender, messageFactory(), 100, metrics(),
+                new SmtpRelayPool(mailSender, new StandardEnvironment(), new SimpleMeterRegistry()),
+                new DomainThrottle(1_000_000, 1, 1_000_000, 1, 0.5, Duration.ofSeconds(30), "", new SimpleMeterRegistry()));
+    }
+
+    // Disabled: reads go straight to the repository stub and evictions are no-ops
+    static NotificationLookupCache lookupCache() {
+        return new NotificationLookupCache(null, new SimpleMeterRegistry(), false, false, 1, Duration.ofSeconds(1));
+    }
+
+    // Quiet hours off; nothing in the benchmarks asks for a send-at time
+    static DeliverySchedule deliverySchedule() {
+        return new DeliverySchedule(false, "21:00", "08:00", "UTC", Set.of(), "08:00");
+    }
+
+    // JPA repository stub: save assigns an id, lookups find nothing
+    static NotificationRepository notificationRepository() {
+        AtomicLong ids = new AtomicLong();
+        return (NotificationRepository) Proxy.newProxyInstance(
+                NotificationRepository.class.getClassLoader(),
+                new Class<?>[] { NotificationRepository.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        Notification notification = (Notification) args[0];
+                        notification.setId(ids.incrementAndGet());
+                        yield notification;
+                    }
+                    case "findFirstByOrderIdOrderByIdAsc", "findById" -> Optional.empty();
+                    case "findAllById" -> List.of();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "NotificationRepositoryStub";
+                    default -> null;
+                });
+    }
+
+    static final class NoopBatchWriter extends NotificationBatchWriter {
+
+        private final AtomicLong ids = new AtomicLong();
+
+        NoopBatchWriter() {
+            super(null);
+        }
+
+        @Override
+        public List<Notification> insertAll(List<Notification> notifications) {
+            notifications.forEach(n -> n.setId(ids.incrementAndGet()));
+            return notifications;
+        }
+
+        @Override
+        public Set<LocalDateTime> insertOutbox(List<Notification> notifications, NotificationEvent event,
+                Function<Notification, LocalDateTime> dueAt, NotificationDigestPolicy digestPolicy) {
+            return Set.of();
+        }
+    }
+
+    // Every request is new: the benchmark notification has an order id, so the service derives a key for it, and
+    // every key is claimable so each invocation does the full send path
+    static final class NoopIdempotencyGuard extends IdempotencyGuard {
+
+        NoopIdempotencyGuard() {
+            super(new JdbcTemplate(), new SimpleMeterRegistry(), 1, Duration.ofDays(7));
+        }
+
+        @Override
+        public boolean tryClaim(String key) {
+            return true;
+        }
+
+        @Override
+        public void link(String key, Long notificationId) {
+            // nothing to write
+        }
+
+        @Override
+        public Set<String> existing(Collection<String> keys) {
+            return Set.of();
+        }
+
+        @Override
+        public void recordAll(List<Notification> notifications) {
+            // nothing to write
+        }
+    }
+
+    static final class NoopOutboxStore extends OutboxStore {
+
+        NoopOutboxStore() {
+            super(null, null, new NoopBatchWriter(), new NotificationDigestPolicy(false, Duration.ZERO),
+                    new NotificationPriorities(), deliverySchedule(),
+                    new DeliveryTimingWheel(null, event -> { }, 1000, 64, Duration.ofMinutes(10)),
+                    Duration.ofMinutes(5), Duration.ofSeconds(30), 10);
+        }
+
+        @Override
+        public NotificationOutbox enqueue(Notification notification, NotificationType channel, NotificationEvent event,
+                LocalDateTime availableAt) {
+            return outboxRow(notification, event);
+        }
+    }
+
+    // Serializes each message fully (as the SMTP transport would) into a null stream
+    static final class InMemoryMailSender extends JavaMailSenderImpl {
+
+        private final AtomicLong sent = new AtomicLong();
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            for (MimeMessage message : mimeMessages) {
+                try {
+                    message.writeTo(OutputStream.nullOutputStream());
+                    sent.incrementAndGet();
+                } catch (IOException | MessagingException e) {
+                    throw new MailSendException("In-memory send failed", e);
+                }
+            }
+        }
+
+        long sentCount() {
+            return sent.get();
+        }
+    }
+}
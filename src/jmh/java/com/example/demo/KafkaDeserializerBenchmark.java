@@ -0,0 +1,76 @@
+package com.example.demo;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Cost of the NotificationRequest value (de)serializers, per wire format, built the way KafkaConfig builds them
+// (same mapper, ErrorHandlingDeserializer around NotificationRequestDeserializer) but without a Spring context.
+// -prof gc reports gc.alloc.rate.norm (bytes allocated per record).
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaDeserializerBenchmark {
+
+    @Param({ "json", "avro" })
+    public String format;
+
+    private static final ObjectMapper WIRE_MAPPER = JacksonUtils.enhancedObjectMapper();
+
+    private final NotificationRequest request = BenchmarkFixtures.request();
+    private Deserializer<NotificationRequest> deserializer;
+    private Serializer<Object> serializer;
+    private Headers headers;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        deserializer = newDeserializer();
+        serializer = new NotificationRequestSerializer(WIRE_MAPPER.writer(),
+                NotificationConstants.WIRE_FORMAT_AVRO.equals(format));
+        headers = new RecordHeaders();
+        payload = serializer.serialize(NotificationConstants.NOTIFICATION_TOPIC, headers, request);
+    }
+
+    private static Deserializer<NotificationRequest> newDeserializer() {
+        return new ErrorHandlingDeserializer<>(new NotificationRequestDeserializer(WIRE_MAPPER.readerFor(NotificationRequest.class)));
+    }
+
+    @Benchmark
+    public Deserializer<NotificationRequest> setUpDeserializer() {
+        return newDeserializer();
+    }
+
+    @Benchmark
+    public NotificationRequest deserialize() {
+        return deserializer.deserialize(NotificationConstants.NOTIFICATION_TOPIC, headers, payload);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(NotificationConstants.NOTIFICATION_TOPIC, new RecordHeaders(), request);
+    }
+}
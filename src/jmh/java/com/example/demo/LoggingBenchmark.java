@@ -0,0 +1,119 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+
+// What logging costs per notification on the request path (sendNotification):
+//   off   - no appenders, baseline
+//   sync  - synchronous file appender, as logback-spring.xml does outside the prod profile
+//   async - prod profile: bounded non-blocking AsyncAppender plus 1-in-100 sampling of per-notification lines
+// Cost per notification is the difference to "off"; several threads so appender contention shows up.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} %-5level %logger{36} - %msg%n";
+
+    @Param({ "off", "sync", "async" })
+    public String logging;
+
+    private ExecutorService executor;
+    private NotificationServiceImpl service;
+    private Notification notification;
+    private LoggerContext context;
+    private Path logFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        service = BenchmarkFixtures.service(executor);
+        notification = BenchmarkFixtures.notification();
+        logFile = Files.createTempFile("notification-bench", ".log");
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        configure();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        context.reset();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public Notification sendNotification() throws Exception {
+        return service.sendNotification(notification);
+    }
+
+    private void configure() {
+        context.reset();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        if ("off".equals(logging)) {
+            root.setLevel(ch.qos.logback.classic.Level.OFF);
+            return;
+        }
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        if ("sync".equals(logging)) {
+            root.addAppender(file);
+            return;
+        }
+
+        NotificationLogSampler sampler = new NotificationLogSampler();
+        sampler.setContext(context);
+        sampler.setSampleRate(100);
+        sampler.start();
+        context.addTurboFilter(sampler);
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(file);
+        async.start();
+        root.addAppender(async);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Message construction on the send path: template rendering and MimeMessage building
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MimeMessageBenchmark {
+
+    private Session session;
+    private NotificationMessageFactory messageFactory;
+    private Notification notification;
+    private NotificationChannel.Delivery delivery;
+    private NotificationTemplateEngine.RenderedMessage rendered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        session = new BenchmarkFixtures.InMemoryMailSender().getSession();
+        messageFactory = BenchmarkFixtures.messageFactory();
+        notification = BenchmarkFixtures.notification();
+        notification.setId(1L);
+        notification.setProductName("Wireless Headphones");
+        delivery = new NotificationChannel.Delivery(
+                BenchmarkFixtures.outboxRow(notification, NotificationEvent.ORDER_CONFIRMATION), notification);
+        rendered = messageFactory.render(delivery);
+    }
+
+    @Benchmark
+    public NotificationTemplateEngine.RenderedMessage render() {
+        return messageFactory.render(delivery);
+    }
+
+    @Benchmark
+    public MimeMessage buildMessage() throws Exception {
+        return EmailChannel.buildMessage(session, notification.getEmail(), rendered);
+    }
+}
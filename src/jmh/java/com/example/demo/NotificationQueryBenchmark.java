@@ -0,0 +1,215 @@
+package com.example.demo;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// NotificationRepository queries against a seeded in-memory H2 database (MySQL mode). indexed=false drops the
+// Notification indexes after seeding, so the two runs show what the indexes buy; *Entities repeats the list
+// query as it was before the NotificationSummary projection. H2 is not MySQL: compare the gaps, not the numbers.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationQueryBenchmark {
+
+    private static final List<String> INDEXES = List.of(
+            "idx_notification_customer_id",
+            "idx_notification_order_id",
+            "idx_notification_order_reference",
+            "idx_notification_type",
+            "idx_notification_sent_sent_at");
+
+    private static final int ROWS_PER_CUSTOMER = 100;
+    private static final int ROWS_PER_ORDER = 2;
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Param({ "200000" })
+    public int rows;
+
+    @Param({ "true", "false" })
+    public boolean indexed;
+
+    private AnnotationConfigApplicationContext context;
+    private NotificationRepository repository;
+    private EntityManagerFactory entityManagerFactory;
+    private int customers;
+    private int orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(JpaConfig.class);
+        repository = context.getBean(NotificationRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        customers = Math.max(1, rows / ROWS_PER_CUSTOMER);
+        orders = Math.max(1, rows / ROWS_PER_ORDER);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        seed(jdbcTemplate);
+        if (!indexed) {
+            INDEXES.forEach(index -> jdbcTemplate.execute("DROP INDEX " + index));
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Rows are spread round-robin so a customer's and an order's rows are scattered across the table,
+    // as they are in production, rather than sitting next to each other in id order
+    private void seed(JdbcTemplate jdbcTemplate) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        String sql = "INSERT INTO notification (customer_id, order_id, product_id, message, product_name, description,"
+                + " quantity, price, order_type, order_reference, payment_method, email, phone_number, address, locale,"
+                + " type, sent_at, sent) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        int batchSize = 5_000;
+        for (int from = 0; from < rows; from += batchSize) {
+            List<Object[]> batch = IntStream.range(from, Math.min(rows, from + batchSize))
+                    .mapToObj(i -> {
+                        long orderId = i % orders;
+                        boolean sent = i % 10 != 0;
+                        return new Object[] {
+                                (long) (i % customers), orderId, (long) (i % 500),
+                                "Your order has been placed", "Wireless Headphones", "Over-ear, noise cancelling",
+                                2, new BigDecimal("1499.00"), "ONLINE", reference(orderId), "UPI",
+                                "customer" + (i % customers) + "@example.com", "+4479460" + String.format("%05d", i % 100_000),
+                                "221B Baker Street, London", "en-GB", NotificationType.values()[i % NotificationType.values().length].name(),
+                                sent ? Timestamp.valueOf(start.plusMinutes(i)) : null, sent };
+                    })
+                    .toList();
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    private static String reference(long orderId) {
+        return String.format("ORD-2024-%07d", orderId);
+    }
+
+    @Benchmark
+    public List<NotificationSummary> customerPage() {
+        return repository.findByCustomerIdAndIdLessThanOrderByIdDesc(randomCustomer(), Long.MAX_VALUE, PAGE);
+    }
+
+    // The same page read as whole entities, the way the list endpoints did before the projection
+    @Benchmark
+    public List<Notification> customerPageEntities() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("SELECT n FROM Notification n WHERE n.customerId = :customerId"
+                            + " AND n.id < :cursor ORDER BY n.id DESC", Notification.class)
+                    .setParameter("customerId", randomCustomer())
+                    .setParameter("cursor", Long.MAX_VALUE)
+                    .setMaxResults(PAGE.getPageSize())
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public List<NotificationSummary> allPage() {
+        long cursor = ThreadLocalRandom.current().nextLong(PAGE.getPageSize(), rows) + 1;
+        return repository.findByIdLessThanOrderByIdDesc(cursor, PAGE);
+    }
+
+    @Benchmark
+    public Notification latestForOrder() {
+        return repository.findTopByOrderIdOrderBySentAtDesc(randomOrder());
+    }
+
+    @Benchmark
+    public List<Notification> byOrderReference() {
+        return repository.findByOrderReference(reference(randomOrder()));
+    }
+
+    private long randomCustomer() {
+        return ThreadLocalRandom.current().nextInt(customers);
+    }
+
+    private long randomOrder() {
+        return ThreadLocalRandom.current().nextInt(orders);
+    }
+
+    // Just the Notification entity and its repository; the application's Kafka, Feign and mail setup stays out
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = NotificationRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = NotificationRepository.class))
+    static class JpaConfig {
+
+        @Bean(destroyMethod = "close")
+        HikariDataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:notification_bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+            dataSource.setMaximumPoolSize(2);
+            return dataSource;
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            Properties properties = new Properties();
+            properties.put("hibernate.hbm2ddl.auto", "create-drop");
+            properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            // Same column names as Spring Boot gives the application (customer_id, not customerId)
+            properties.put("hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName());
+            properties.put("hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName());
+
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setManagedTypes(PersistenceManagedTypes.of(Notification.class.getName()));
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaProperties(properties);
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.mail.internet.MimeMessage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// sendNotification end to end: validate, enrich (stubbed Feign behind the product cache), persist (stubbed),
+// then what the relay and dispatcher do for it: render the template, build the MimeMessage and send it in memory
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SendNotificationBenchmark {
+
+    private ExecutorService executor;
+    private NotificationServiceImpl service;
+    private NotificationMessageFactory messageFactory;
+    private BenchmarkFixtures.InMemoryMailSender mailSender;
+    private Notification notification;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        service = BenchmarkFixtures.service(executor);
+        messageFactory = BenchmarkFixtures.messageFactory();
+        mailSender = new BenchmarkFixtures.InMemoryMailSender();
+        notification = BenchmarkFixtures.notification();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Notification requestPath() throws Exception {
+        return service.sendNotification(notification);
+    }
+
+    @Benchmark
+    public MimeMessage endToEnd() throws Exception {
+        Notification saved = service.sendNotification(notification);
+        NotificationTemplateEngine.RenderedMessage rendered = messageFactory.render(new NotificationChannel.Delivery(
+                BenchmarkFixtures.outboxRow(saved, NotificationEvent.ORDER_CONFIRMATION), saved));
+        MimeMessage message = EmailChannel.buildMessage(mailSender.getSession(), saved.getEmail(), rendered);
+        mailSender.send(message);
+        return message;
+    }
+}
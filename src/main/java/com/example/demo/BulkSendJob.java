@@ -0,0 +1,81 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one bulk send. Counters are updated by the chunk workers; status() takes a consistent-enough snapshot.
+public class BulkSendJob {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public record Status(String id, State state, long received, long queued, long skipped, long failed,
+            Instant startedAt, Instant finishedAt, double perSecond, String lastError) {
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger pendingChunks = new AtomicInteger();
+    private volatile boolean inputComplete;
+    private volatile boolean inputFailed;
+    private volatile Instant finishedAt;
+    private volatile String lastError;
+
+    public String getId() {
+        return id;
+    }
+
+    void chunkSubmitted(int size) {
+        received.addAndGet(size);
+        pendingChunks.incrementAndGet();
+    }
+
+    // queuedCount may be lower than the chunk size: invalid and duplicate entries are skipped by the service
+    void chunkDone(int queuedCount) {
+        queued.addAndGet(queuedCount);
+        finishChunk();
+    }
+
+    void chunkFailed(int size, Exception e) {
+        failed.addAndGet(size);
+        lastError = e.getMessage();
+        finishChunk();
+    }
+
+    // No more chunks will be submitted
+    void inputDone(Exception error) {
+        if (error != null) {
+            inputFailed = true;
+            lastError = error.getMessage();
+        }
+        inputComplete = true;
+        if (pendingChunks.get() == 0) {
+            finishedAt = Instant.now();
+        }
+    }
+
+    private void finishChunk() {
+        if (pendingChunks.decrementAndGet() == 0 && inputComplete) {
+            finishedAt = Instant.now();
+        }
+    }
+
+    public Status status() {
+        Instant end = finishedAt;
+        State state = end == null ? State.RUNNING : inputFailed ? State.FAILED : State.COMPLETED;
+        long queuedNow = queued.get();
+        long failedNow = failed.get();
+        long receivedNow = received.get();
+        double seconds = Math.max(Duration.between(startedAt, end != null ? end : Instant.now()).toMillis(), 1) / 1000.0;
+        long skipped = end != null ? receivedNow - queuedNow - failedNow : 0;
+        return new Status(id, state, receivedNow, queuedNow, skipped, failedNow, startedAt, end,
+                Math.round(queuedNow / seconds * 10) / 10.0, lastError);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Campaign-scale sends. Input (an uploaded stream of notifications, or a recipient query) is cut into chunks
+// that go through the batched sendNotifications path on a small pool, so a 50k-recipient blast costs
+// ~100 JDBC batches instead of 50k request round trips. Delivery then runs through the channel lanes as usual.
+@Service
+public class BulkSendService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkSendService.class);
+
+    // One page of recipients after a customer ID: each customer's latest notification row that can be reached
+    // on the channel, so email, phone and locale all come from the same row
+    private static final String RECIPIENTS_SQL =
+            "SELECT n.customer_id, n.email, n.phone_number, n.locale FROM notification n "
+            + "JOIN (SELECT customer_id, MAX(id) AS id FROM notification "
+            + "WHERE customer_id > ? AND %s%s GROUP BY customer_id ORDER BY customer_id LIMIT ?) latest ON n.id = latest.id "
+            + "ORDER BY n.customer_id";
+
+    private final NotificationService notificationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Executor executor;
+    private final ObjectReader reader;
+    private final int chunkSize;
+    private final Cache<String, BulkSendJob> jobs;
+
+    @Autowired
+    public BulkSendService(
+            NotificationService notificationService,
+            JdbcTemplate jdbcTemplate,
+            @Qualifier("notificationBulkExecutor") Executor executor,
+            ObjectMapper objectMapper,
+            @Value("${notification.bulk.chunk-size:500}") int chunkSize,
+            @Value("${notification.bulk.job-retention:24h}") Duration jobRetention) {
+        this.notificationService = notificationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.reader = objectMapper.readerFor(Notification.class);
+        this.chunkSize = chunkSize;
+        this.jobs = Caffeine.newBuilder().expireAfterWrite(jobRetention).build();
+    }
+
+    // Recipients selected from known contacts for the channel, all getting the same message
+    public record Campaign(NotificationType type, String message, List<Long> customerIds) {
+    }
+
+    public Optional<BulkSendJob.Status> status(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(BulkSendJob::status);
+    }
+
+    // Reads the whole stream (NDJSON or a JSON array) on the calling thread, handing chunks to the pool as
+    // they fill; returns once the input is consumed while the last chunks are still being processed
+    public BulkSendJob submit(InputStream in, NotificationEvent event) {
+        BulkSendJob job = newJob();
+        Exception error = null;
+        try (MappingIterator<Notification> notifications = reader.readValues(in)) {
+            List<Notification> chunk = new ArrayList<>(chunkSize);
+            while (notifications.hasNextValue()) {
+                chunk.add(notifications.nextValue());
+                if (chunk.size() == chunkSize) {
+                    submitChunk(job, chunk, event);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submitChunk(job, chunk, event);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("❌ Bulk job {} stopped reading input: {}", job.getId(), e.getMessage());
+            error = e;
+        }
+        job.inputDone(error);
+        return job;
+    }
+
+    // Returns immediately; the recipients are paged through on the bulk pool. Each recipient's notification is
+    // keyed on the client's Idempotency-Key (the job ID without one) and the customer, so a re-sent chunk or a
+    // replayed request with the same key does not message anyone twice.
+    public BulkSendJob submit(Campaign campaign, String idempotencyKey) {
+        BulkSendJob job = newJob();
+        String campaignKey = "campaign:" + (idempotencyKey != null && !idempotencyKey.isBlank() ? idempotencyKey : job.getId());
+        executor.execute(() -> {
+            Exception error = null;
+            try {
+                pageRecipients(job, campaign, campaignKey);
+            } catch (RuntimeException e) {
+                logger.error("❌ Bulk job {} recipient query failed: {}", job.getId(), e.getMessage());
+                error = e;
+            }
+            job.inputDone(error);
+        });
+        return job;
+    }
+
+    // Keyset pages of chunk-size recipients, each read in full before its chunk is handed on, so no result set
+    // stays open while a chunk runs (the pool runs chunks on this thread once its queue is full). A customer ID
+    // filter is applied in slices of MAX_PAGE_SIZE IDs.
+    private void pageRecipients(BulkSendJob job, Campaign campaign, String campaignKey) {
+        String contact = switch (campaign.type()) {
+            case EMAIL -> "email IS NOT NULL";
+            case SMS -> "phone_number IS NOT NULL";
+            case PUSH -> "1 = 1";
+        };
+        List<List<Long>> slices = new ArrayList<>();
+        if (campaign.customerIds() == null || campaign.customerIds().isEmpty()) {
+            slices.add(List.of());
+        } else {
+            List<Long> ids = campaign.customerIds().stream().filter(Objects::nonNull).distinct().sorted().toList();
+            for (int from = 0; from < ids.size(); from += NotificationConstants.MAX_PAGE_SIZE) {
+                slices.add(ids.subList(from, Math.min(from + NotificationConstants.MAX_PAGE_SIZE, ids.size())));
+            }
+        }
+
+        for (List<Long> slice : slices) {
+            String sql = String.format(RECIPIENTS_SQL, contact, slice.isEmpty() ? ""
+                    : " AND customer_id IN (" + String.join(", ", Collections.nCopies(slice.size(), "?")) + ")");
+            long after = Long.MIN_VALUE;
+            List<Notification> page;
+            do {
+                List<Object> args = new ArrayList<>(slice.size() + 2);
+                args.add(after);
+                args.addAll(slice);
+                args.add(chunkSize);
+                page = jdbcTemplate.query(sql, (rs, rowNum) -> Notification.builder()
+                        .customerId(rs.getLong("customer_id"))
+                        .email(rs.getString("email"))
+                        .phoneNumber(rs.getString("phone_number"))
+                        .locale(rs.getString("locale"))
+                        .message(campaign.message())
+                        .type(campaign.type())
+                        .idempotencyKey(campaignKey + ":" + campaign.type() + ":" + rs.getLong("customer_id"))
+                        .build(), args.toArray());
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getCustomerId();
+                    submitChunk(job, page, NotificationEvent.CAMPAIGN);
+                }
+            } while (page.size() == chunkSize);
+        }
+    }
+
+    private void submitChunk(BulkSendJob job, List<Notification> chunk, NotificationEvent event) {
+        job.chunkSubmitted(chunk.size());
+        executor.execute(() -> {
+            try {
+                job.chunkDone(notificationService.sendNotifications(chunk, event).size());
+            } catch (Exception e) {
+                logger.error("❌ Bulk job {} chunk of {} failed: {}", job.getId(), chunk.size(), e.getMessage());
+                job.chunkFailed(chunk.size(), e);
+            }
+        });
+    }
+
+    private BulkSendJob newJob() {
+        BulkSendJob job = new BulkSendJob();
+        jobs.put(job.getId(), job);
+        logger.info("📦 Started bulk job {}", job.getId());
+        return job;
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Delivers claimed outbox entries through their channel. Each channel has its own lane: bounded per-priority queues
+// drained in batches by dedicated workers, gated by the channel's own Resilience4j bulkhead
+// ("channel-email", "channel-sms", ...) and rate limiter, so one slow channel never blocks another.
+// Within a lane, workers pick batches weighted-fair across priority classes (see PriorityLaneQueue).
+@Component
+public class ChannelDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelDispatcher.class);
+
+    private final Map<NotificationType, Lane> lanes = new EnumMap<>(NotificationType.class);
+    private final OutboxStore outboxStore;
+    private final NotificationLookupCache lookupCache;
+    private final long idleTimeoutMs;
+    private final Duration busyRetryDelay;
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    @Autowired
+    public ChannelDispatcher(
+            NotificationChannels channels,
+            OutboxStore outboxStore,
+            NotificationLookupCache lookupCache,
+            NotificationPriorities priorities,
+            BulkheadRegistry bulkheadRegistry,
+            RateLimiterRegistry rateLimiterRegistry,
+            MeterRegistry meterRegistry,
+            Environment environment) {
+        this.outboxStore = outboxStore;
+        this.lookupCache = lookupCache;
+        this.idleTimeoutMs = environment.getProperty("notification.channel.idle-timeout-ms", Long.class, 10_000L);
+        this.busyRetryDelay = environment.getProperty("notification.channel.busy-retry-delay", Duration.class, Duration.ofSeconds(1));
+
+        for (NotificationChannel channel : channels.all().values()) {
+            String name = channel.type().name().toLowerCase(Locale.ROOT);
+            String prefix = "notification.channel." + name + ".";
+            RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter("channel-" + name);
+            int batchSize = environment.getProperty(prefix + "batch-size", Integer.class, 50);
+            // A batch takes its permits at once, which can never succeed for more than one period's worth
+            int limitForPeriod = rateLimiter.getRateLimiterConfig().getLimitForPeriod();
+            if (batchSize > limitForPeriod) {
+                throw new IllegalStateException(prefix + "batch-size " + batchSize + " exceeds the channel-" + name
+                        + " rate limiter's limitForPeriod " + limitForPeriod);
+            }
+            lanes.put(channel.type(), new Lane(
+                    channel,
+                    bulkheadRegistry.bulkhead("channel-" + name),
+                    rateLimiter,
+                    priorities,
+                    environment.getProperty(prefix + "queue-capacity", Integer.class, 10_000),
+                    batchSize,
+                    meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (Lane lane : lanes.values()) {
+            // One worker per bulkhead permit, so the bulkhead is the channel's concurrency limit. Platform threads
+            // even in virtual-thread mode: SMTPTransport.sendMessage is synchronized and would pin the carrier.
+            int workers = lane.bulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+            for (int i = 0; i < workers; i++) {
+                workerThreads.add(Thread.ofPlatform().daemon(true).name(lane.name + "-dispatch-" + i).start(lane::drain));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workerThreads.forEach(Thread::interrupt);
+    }
+
+    // Queue an entry on its channel's lane; false when the lane is full
+    public boolean offer(NotificationChannel.Delivery delivery) {
+        Lane lane = lanes.get(delivery.outbox().getChannel());
+        if (lane == null) {
+            delivery.all().forEach(d -> outboxStore.fail(d.outbox(), "No channel for type " + d.outbox().getChannel()));
+            return true;
+        }
+        if (lane.queue.offer(delivery)) {
+            return true;
+        }
+        lane.rejected.increment();
+        return false;
+    }
+
+    public Duration busyRetryDelay() {
+        return busyRetryDelay;
+    }
+
+    public int remainingCapacity() {
+        return lanes.values().stream().mapToInt(lane -> lane.queue.remainingCapacity()).sum();
+    }
+
+    private final class Lane {
+
+        private final NotificationChannel channel;
+        private final String name;
+        private final Bulkhead bulkhead;
+        private final RateLimiter rateLimiter;
+        private final PriorityLaneQueue queue;
+        private final int batchSize;
+        private final Counter rejected;
+        private final Counter delivered;
+        private final Counter failed;
+        private final Counter deferred;
+        private final Timer batchTimer;
+        private final Map<NotificationPriority, Timer> latency = new EnumMap<>(NotificationPriority.class);
+
+        Lane(NotificationChannel channel, Bulkhead bulkhead, RateLimiter rateLimiter, NotificationPriorities priorities,
+                int queueCapacity, int batchSize, MeterRegistry meterRegistry) {
+            this.channel = channel;
+            this.name = channel.type().name().toLowerCase(Locale.ROOT);
+            this.bulkhead = bulkhead;
+            this.rateLimiter = rateLimiter;
+            this.queue = new PriorityLaneQueue(queueCapacity, bulkhead.getBulkheadConfig().getMaxConcurrentCalls(), priorities);
+            this.batchSize = batchSize;
+
+            for (NotificationPriority priority : NotificationPriority.values()) {
+                String priorityTag = priority.name().toLowerCase(Locale.ROOT);
+                Gauge.builder("notification.channel.queue.size", queue, q -> q.size(priority))
+                        .tags("channel", name, "priority", priorityTag).register(meterRegistry);
+                // Queued to delivered, per class: the number to watch for transactional p99 under bulk load
+                latency.put(priority, Timer.builder("notification.delivery.latency")
+                        .description("Time from outbox insert to successful delivery")
+                        .tags("channel", name, "priority", priorityTag)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+            Gauge.builder("notification.channel.queue.remaining", queue, PriorityLaneQueue::remainingCapacity).tag("channel", name).register(meterRegistry);
+            this.rejected = meterRegistry.counter("notification.channel.queue.rejected", "channel", name);
+            this.delivered = meterRegistry.counter("notification.channel.delivered", "channel", name);
+            this.failed = meterRegistry.counter("notification.channel.failed", "channel", name);
+            this.deferred = meterRegistry.counter("notification.channel.deferred", "channel", name);
+            this.batchTimer = meterRegistry.timer("notification.channel.batch", "channel", name);
+        }
+
+        void drain() {
+            List<NotificationChannel.Delivery> batch = new ArrayList<>(batchSize);
+            try {
+                while (running) {
+                    try {
+                        NotificationPriority priority = queue.take(batch, batchSize, idleTimeoutMs);
+                        if (priority == null) {
+                            channel.idle();
+                            continue;
+                        }
+                        try {
+                            deliver(batch);
+                        } finally {
+                            queue.done(priority);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        logger.error("❌ {} dispatch worker error: {}", name, e.getMessage(), e);
+                    } finally {
+                        batch.clear();
+                    }
+                }
+            } finally {
+                channel.idle();
+            }
+        }
+
+        private void deliver(List<NotificationChannel.Delivery> batch) {
+            // Entries the channel holds back (e.g. throttled domains) take no channel permits
+            List<NotificationChannel.DeliveryFailure> failures = new ArrayList<>(channel.holdBack(batch));
+            List<NotificationChannel.Delivery> sending = batch;
+            if (!failures.isEmpty()) {
+                Set<NotificationChannel.Delivery> held = Collections.newSetFromMap(new IdentityHashMap<>());
+                failures.forEach(failure -> held.add(failure.delivery()));
+                sending = batch.stream().filter(delivery -> !held.contains(delivery)).toList();
+            }
+
+            // Waits only this channel's worker; entries that can't get permits go back to the outbox, and what
+            // holdBack took for them (domain permits) is returned
+            if (!sending.isEmpty() && !rateLimiter.acquirePermission(sending.size())) {
+                channel.giveBack(sending);
+                outboxStore.release(batch.stream().flatMap(delivery -> delivery.all().stream()).map(NotificationChannel.Delivery::outbox).toList(),
+                        busyRetryDelay);
+                deferred.increment(batch.size());
+                return;
+            }
+
+            if (!sending.isEmpty()) {
+                List<NotificationChannel.Delivery> toSend = sending;
+                try {
+                    failures.addAll(batchTimer.record(() -> bulkhead.executeSupplier(() -> channel.deliver(toSend))));
+                } catch (Exception e) {
+                    // The whole batch failed (e.g. gateway unreachable)
+                    toSend.forEach(delivery -> failures.add(new NotificationChannel.DeliveryFailure(delivery, e.getMessage())));
+                }
+            }
+
+            List<Long> outboxIds = new ArrayList<>(batch.size());
+            List<Long> notificationIds = new ArrayList<>(batch.size());
+            List<Notification> sent = new ArrayList<>(batch.size());
+            LocalDateTime now = LocalDateTime.now();
+            Set<NotificationChannel.Delivery> failedDeliveries = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<NotificationOutbox> deferredRows = new ArrayList<>();
+            int failedCount = 0;
+            for (NotificationChannel.DeliveryFailure failure : failures) {
+                failedDeliveries.add(failure.delivery());
+                switch (failure.kind()) {
+                    case DEFERRED -> failure.delivery().all().forEach(d -> deferredRows.add(d.outbox()));
+                    case RETRY -> {
+                        failedCount++;
+                        failure.delivery().all().forEach(d -> outboxStore.retryLater(d.outbox(), failure.error()));
+                    }
+                    case PERMANENT -> {
+                        failedCount++;
+                        failure.delivery().all().forEach(d -> outboxStore.fail(d.outbox(), failure.error()));
+                    }
+                }
+            }
+            if (!deferredRows.isEmpty()) {
+                outboxStore.release(deferredRows, busyRetryDelay);
+            }
+            for (NotificationChannel.Delivery delivery : batch) {
+                if (!failedDeliveries.contains(delivery)) {
+                    for (NotificationChannel.Delivery d : delivery.all()) {
+                        outboxIds.add(d.outbox().getId());
+                        notificationIds.add(d.notification().getId());
+                        sent.add(d.notification());
+                        if (d.outbox().getCreatedAt() != null) {
+                            latency.get(NotificationPriority.of(d.outbox().getEvent()))
+                                    .record(Duration.between(d.outbox().getCreatedAt(), now));
+                        }
+                    }
+                }
+            }
+            outboxStore.complete(outboxIds, notificationIds);
+            // The sent flag shows up in the cached lookups
+            lookupCache.evict(sent);
+            delivered.increment(outboxIds.size());
+            failed.increment(failedCount);
+            deferred.increment(failures.size() - failedCount);
+        }
+    }
+}
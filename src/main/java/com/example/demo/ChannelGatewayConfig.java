@@ -0,0 +1,95 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+// SMS and push gateways. Each posts JSON to a provider endpoint over its own RestClient with its own timeouts.
+// HTTP is the default and needs its url, so a deployment without a real gateway fails at startup instead of
+// marking messages sent that never left. The logging stubs exist for the dev and test profiles only.
+@Configuration
+public class ChannelGatewayConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelGatewayConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "notification.channel.sms.gateway", havingValue = "http", matchIfMissing = true)
+    public SmsGateway httpSmsGateway(
+            RestClient.Builder builder,
+            @Value("${notification.channel.sms.url:}") String url,
+            @Value("${notification.channel.sms.api-key:}") String apiKey,
+            @Value("${notification.channel.sms.sender:}") String sender,
+            @Value("${notification.channel.sms.timeout:2s}") Duration timeout) {
+        RestClient client = restClient(builder, "notification.channel.sms.url", url, apiKey, timeout);
+        return (phoneNumber, text) -> client.post()
+                .body(Map.of("to", phoneNumber, "from", sender, "text", text))
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    @Bean
+    @Profile({"dev", "test"})
+    @ConditionalOnProperty(name = "notification.channel.sms.gateway", havingValue = "log")
+    public SmsGateway loggingSmsGateway() {
+        return (phoneNumber, text) -> logger.info("📱 SMS to {}: {} chars", mask(phoneNumber), text.length());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "notification.channel.push.gateway", havingValue = "http", matchIfMissing = true)
+    public PushGateway httpPushGateway(
+            RestClient.Builder builder,
+            @Value("${notification.channel.push.url:}") String url,
+            @Value("${notification.channel.push.api-key:}") String apiKey,
+            @Value("${notification.channel.push.timeout:2s}") Duration timeout) {
+        RestClient client = restClient(builder, "notification.channel.push.url", url, apiKey, timeout);
+        return (customerId, title, body) -> client.post()
+                .body(Map.of("customerId", customerId, "title", title, "body", body))
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    @Bean
+    @Profile({"dev", "test"})
+    @ConditionalOnProperty(name = "notification.channel.push.gateway", havingValue = "log")
+    public PushGateway loggingPushGateway() {
+        return (customerId, title, body) -> logger.info("🔔 Push to customer {}: {} chars", customerId, body.length());
+    }
+
+    // Only the last four digits reach the log
+    static String mask(String phoneNumber) {
+        if (phoneNumber == null || phoneNumber.length() <= 4) {
+            return "****";
+        }
+        return "*".repeat(phoneNumber.length() - 4) + phoneNumber.substring(phoneNumber.length() - 4);
+    }
+
+    private static RestClient restClient(RestClient.Builder builder, String property, String url, String apiKey, Duration timeout) {
+        if (url.isBlank()) {
+            throw new IllegalStateException(property + " is not set; configure the provider endpoint "
+                    + "(or use gateway=log under the dev or test profile)");
+        }
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        return builder.clone()
+                .baseUrl(url)
+                .requestFactory(requestFactory)
+                .defaultHeaders(headers -> {
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                    if (!apiKey.isEmpty()) {
+                        headers.setBearerAuth(apiKey);
+                    }
+                })
+                .build();
+    }
+}
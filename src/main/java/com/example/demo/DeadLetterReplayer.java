@@ -0,0 +1,94 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+// Moves parked records from the DLT back onto notification-topic, raw bytes and headers unchanged apart from
+// the bookkeeping headers added by the retry/DLT machinery. Progress is tracked by its own consumer group,
+// so each record is replayed once however often the endpoint is called.
+@Component
+public class DeadLetterReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+    private static final String REPLAY_GROUP = "notification-dlt-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    public DeadLetterReplayer(
+            @Qualifier("deadLetterConsumerFactory") ConsumerFactory<String, byte[]> consumerFactory,
+            @Qualifier("rawKafkaTemplate") KafkaTemplate<String, byte[]> kafkaTemplate) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    // Replays up to limit records and returns how many were replayed
+    public synchronized int replay(int limit) {
+        int replayed = 0;
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(REPLAY_GROUP, "dlt-replay")) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(NotificationConstants.DLT_TOPIC);
+            if (partitions == null || partitions.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitions.stream().map(info -> new TopicPartition(info.topic(), info.partition())).toList());
+
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            while (replayed < limit) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<String, byte[]> consumerRecord : records) {
+                    if (replayed == limit) {
+                        break;
+                    }
+                    kafkaTemplate.send(toReplay(consumerRecord)).join();
+                    offsets.put(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()),
+                            new OffsetAndMetadata(consumerRecord.offset() + 1));
+                    replayed++;
+                }
+            }
+            if (!offsets.isEmpty()) {
+                consumer.commitSync(offsets);
+            }
+        }
+        logger.info("♻️ Replayed {} records from {}", replayed, NotificationConstants.DLT_TOPIC);
+        return replayed;
+    }
+
+    private static ProducerRecord<String, byte[]> toReplay(ConsumerRecord<String, byte[]> consumerRecord) {
+        ProducerRecord<String, byte[]> replay = new ProducerRecord<>(
+                NotificationConstants.NOTIFICATION_TOPIC, consumerRecord.key(), consumerRecord.value());
+        for (Header header : consumerRecord.headers()) {
+            if (!isBookkeeping(header.key())) {
+                replay.headers().add(header);
+            }
+        }
+        return replay;
+    }
+
+    private static boolean isBookkeeping(String key) {
+        return key.startsWith("kafka_") || key.startsWith("retry_topic-") || key.startsWith("springDeserializerException");
+    }
+}
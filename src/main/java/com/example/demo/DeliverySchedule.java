@@ -0,0 +1,72 @@
+package com.example.demo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// When an outbox entry may go out: the requested send-at time (or right away), moved past quiet hours for the
+// priority classes they apply to. Quiet hours are in one configured zone; they may span midnight (21:00-08:00).
+@Component
+public class DeliverySchedule {
+
+    private final boolean quietHoursEnabled;
+    private final LocalTime quietStart;
+    private final LocalTime quietEnd;
+    private final ZoneId zone;
+    private final Set<NotificationPriority> quietClasses;
+    private final LocalTime reminderTime;
+
+    @Autowired
+    public DeliverySchedule(
+            @Value("${notification.quiet-hours.enabled:false}") boolean quietHoursEnabled,
+            @Value("${notification.quiet-hours.start:21:00}") String quietStart,
+            @Value("${notification.quiet-hours.end:08:00}") String quietEnd,
+            @Value("${notification.quiet-hours.zone:Asia/Kolkata}") String zone,
+            @Value("${notification.quiet-hours.applies-to:BULK,UPDATE}") Set<NotificationPriority> quietClasses,
+            @Value("${notification.schedule.delivery-reminder-time:08:00}") String reminderTime) {
+        this.quietHoursEnabled = quietHoursEnabled;
+        this.quietStart = LocalTime.parse(quietStart);
+        this.quietEnd = LocalTime.parse(quietEnd);
+        this.zone = ZoneId.of(zone);
+        this.quietClasses = quietClasses.isEmpty() ? EnumSet.noneOf(NotificationPriority.class) : EnumSet.copyOf(quietClasses);
+        this.reminderTime = LocalTime.parse(reminderTime);
+    }
+
+    // Earliest of the requested send-at and the given time, pushed to the end of quiet hours if it lands inside them
+    public LocalDateTime dueAt(Notification notification, NotificationEvent event, LocalDateTime earliest) {
+        LocalDateTime requested = notification.getSendAt() != null && notification.getSendAt().isAfter(earliest)
+                ? notification.getSendAt()
+                : earliest;
+        if (!quietHoursEnabled || !quietClasses.contains(NotificationPriority.of(event))) {
+            return requested;
+        }
+        ZonedDateTime local = requested.atZone(ZoneId.systemDefault()).withZoneSameInstant(zone);
+        if (!isQuiet(local.toLocalTime())) {
+            return requested;
+        }
+        LocalDate endDate = quietStart.isAfter(quietEnd) && !local.toLocalTime().isBefore(quietStart)
+                ? local.toLocalDate().plusDays(1)
+                : local.toLocalDate();
+        return endDate.atTime(quietEnd).atZone(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    // Reminder time on the given day, in the quiet-hours zone
+    public LocalDateTime reminderAt(LocalDate day) {
+        return day.atTime(reminderTime).atZone(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    private boolean isQuiet(LocalTime time) {
+        if (quietStart.isAfter(quietEnd)) {
+            return !time.isBefore(quietStart) || time.isBefore(quietEnd);
+        }
+        return !time.isBefore(quietStart) && time.isBefore(quietEnd);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Wakes the outbox relay when scheduled rows fall due, so future deliveries need neither a tight poll loop nor
+// memory per notification. The outbox's available_at (indexed) is the durable store; only the due times in the
+// near-future window are loaded here, as bits in a timing wheel, and the window is reloaded as time moves on.
+// Rows written with a future due time inside the window are added directly once their transaction commits.
+@Component
+public class DeliveryTimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryTimingWheel.class);
+
+    // Published when something is due; the relay drains the outbox
+    public record OutboxDue() {
+    }
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long tickMillis;
+    private final Duration window;
+    private final TimingWheel wheel;
+
+    @Autowired
+    public DeliveryTimingWheel(
+            NotificationOutboxRepository outboxRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${notification.schedule.tick-ms:1000}") long tickMillis,
+            @Value("${notification.schedule.wheel-size:64}") int wheelSize,
+            @Value("${notification.schedule.window:10m}") Duration window) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.tickMillis = Math.max(1, tickMillis);
+        long capacity = (long) (wheelSize - 1) * wheelSize * tickMillis;
+        if (window.toMillis() > capacity) {
+            throw new IllegalArgumentException("notification.schedule.window " + window + " exceeds the wheel's "
+                    + Duration.ofMillis(capacity) + "; raise wheel-size or tick");
+        }
+        this.window = window;
+        this.wheel = new TimingWheel(wheelSize, tickOf(LocalDateTime.now()));
+    }
+
+    // Registers a future due time after the current transaction commits (waking before commit would find nothing).
+    // Rows due now are the relay's business already; times beyond the window are left to the next preload.
+    public void schedule(LocalDateTime dueAt) {
+        LocalDateTime now = LocalDateTime.now();
+        if (dueAt == null || !dueAt.isAfter(now) || dueAt.isAfter(now.plus(window))) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(dueAt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(dueAt);
+            }
+        });
+    }
+
+    @Scheduled(fixedRateString = "${notification.schedule.tick-ms:1000}")
+    public void tick() {
+        boolean due;
+        synchronized (wheel) {
+            due = wheel.advanceTo(tickOf(LocalDateTime.now()));
+        }
+        if (due) {
+            eventPublisher.publishEvent(new OutboxDue());
+        }
+    }
+
+    // Reloads must overlap (interval below the window) so no due time falls between two of them; re-adding is idempotent
+    @Scheduled(fixedDelayString = "${notification.schedule.preload-interval-ms:300000}")
+    public void preload() {
+        LocalDateTime now = LocalDateTime.now();
+        // Ticks are counted in the database from the boundary at or before now, so they line up with the wheel's
+        long originTick = Math.floorDiv(epochMillis(now), tickMillis);
+        LocalDateTime origin = LocalDateTime.ofInstant(Instant.ofEpochMilli(originTick * tickMillis), ZoneId.systemDefault());
+        List<Number> dueTicks = outboxRepository.findPendingDueTicks(origin, tickMillis, now, now.plus(window));
+        synchronized (wheel) {
+            dueTicks.forEach(tick -> wheel.add(originTick + tick.longValue()));
+        }
+        if (!dueTicks.isEmpty()) {
+            logger.debug("⏰ Loaded {} due ticks for the next {}", dueTicks.size(), window);
+        }
+    }
+
+    private void add(LocalDateTime dueAt) {
+        boolean added;
+        synchronized (wheel) {
+            added = wheel.add(tickOf(dueAt));
+        }
+        if (!added && !dueAt.isAfter(LocalDateTime.now())) {
+            eventPublisher.publishEvent(new OutboxDue());
+        }
+    }
+
+    private long tickOf(LocalDateTime at) {
+        // Round up: never wake before the row is due
+        return Math.floorDiv(epochMillis(at) + tickMillis - 1, tickMillis);
+    }
+
+    private static long epochMillis(LocalDateTime at) {
+        return at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Per-recipient-domain send rate for email. Every domain has a token bucket whose rate adapts AIMD-style:
+// clean sends raise it additively (by `increase` msgs/s for each second of sending at the current rate) up to
+// the domain's max, a 4xx deferral from the provider halves it and pauses the domain for a while. This keeps
+// each provider at the rate it accepts without bursting into its throttling. Idle domains are forgotten.
+@Component
+public class DomainThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomainThrottle.class);
+
+    private final double defaultRate;
+    private final double minRate;
+    private final double maxRate;
+    private final double increase;
+    private final double decrease;
+    private final long deferralPauseNanos;
+    private final Map<String, Double> limits;
+    private final Cache<String, Bucket> buckets;
+    private final Counter throttled;
+    private final Counter deferrals;
+
+    @Autowired
+    public DomainThrottle(
+            @Value("${notification.channel.email.domain.default-rate:5}") double defaultRate,
+            @Value("${notification.channel.email.domain.min-rate:0.5}") double minRate,
+            @Value("${notification.channel.email.domain.max-rate:50}") double maxRate,
+            @Value("${notification.channel.email.domain.increase:1}") double increase,
+            @Value("${notification.channel.email.domain.decrease:0.5}") double decrease,
+            @Value("${notification.channel.email.domain.deferral-pause:30s}") Duration deferralPause,
+            @Value("${notification.channel.email.domain.limits:}") String limits,
+            MeterRegistry meterRegistry) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.defaultRate = Math.max(minRate, Math.min(maxRate, defaultRate));
+        this.increase = increase;
+        this.decrease = decrease;
+        this.deferralPauseNanos = deferralPause.toNanos();
+        this.limits = parseLimits(limits);
+        this.buckets = Caffeine.newBuilder().expireAfterAccess(Duration.ofHours(1)).build();
+        this.throttled = meterRegistry.counter("notification.email.domain.throttled");
+        this.deferrals = meterRegistry.counter("notification.email.domain.deferred");
+    }
+
+    // Takes one send permit for the recipient's domain; false means hold the message back for now
+    public boolean tryAcquire(String email) {
+        if (bucket(email).tryAcquire(System.nanoTime())) {
+            return true;
+        }
+        throttled.increment();
+        return false;
+    }
+
+    // A permit taken by tryAcquire that was not used after all
+    public void giveBack(String email) {
+        bucket(email).giveBack();
+    }
+
+    public void delivered(String email) {
+        bucket(email).delivered();
+    }
+
+    // The provider answered 4xx (try again later): back off
+    public void deferred(String email) {
+        String domain = domainOf(email);
+        double rate = bucket(email).deferred(System.nanoTime());
+        deferrals.increment();
+        logger.warn("🐢 {} deferred a message; sending to it at {} msgs/s", domain, String.format(Locale.ROOT, "%.2f", rate));
+    }
+
+    static String domainOf(String email) {
+        int at = email != null ? email.lastIndexOf('@') : -1;
+        return at >= 0 ? email.substring(at + 1).trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private Bucket bucket(String email) {
+        return buckets.get(domainOf(email), domain -> {
+            double max = limits.getOrDefault(domain, maxRate);
+            return new Bucket(Math.min(defaultRate, max), max);
+        });
+    }
+
+    // domain:rate,domain:rate
+    private static Map<String, Double> parseLimits(String limits) {
+        Map<String, Double> parsed = new HashMap<>();
+        for (String entry : limits.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            if (colon > 0) {
+                parsed.put(entry.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                        Double.parseDouble(entry.substring(colon + 1).trim()));
+            }
+        }
+        return parsed;
+    }
+
+    // A one-second burst at the current rate
+    private final class Bucket {
+
+        private final double limit;
+        private double rate;
+        private double tokens;
+        private long refilledAt;
+        private long pausedUntil;
+
+        Bucket(double rate, double limit) {
+            this.rate = rate;
+            this.limit = limit;
+            this.tokens = Math.max(1, rate);
+            this.refilledAt = System.nanoTime();
+            this.pausedUntil = refilledAt;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            if (now - pausedUntil < 0) {
+                return false;
+            }
+            tokens = Math.min(Math.max(1, rate), tokens + (now - refilledAt) / 1e9 * rate);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        synchronized void giveBack() {
+            tokens = Math.min(Math.max(1, rate), tokens + 1);
+        }
+
+        synchronized void delivered() {
+            rate = Math.min(limit, rate + increase / rate);
+        }
+
+        synchronized double deferred(long now) {
+            rate = Math.max(minRate, rate * decrease);
+            tokens = 0;
+            refilledAt = now;
+            pausedUntil = now + deferralPauseNanos;
+            return rate;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Timer;
+
+// Email over SMTP. Each dispatch worker keeps one authenticated connection open and reuses it
+// for up to messages-per-connection sends; it is closed when the worker goes idle. Connections are spread
+// over the relay pool, and every message first needs a permit from its recipient domain's throttle:
+// held-back messages go back to the outbox as deferred, and 4xx answers slow that domain down. A 5xx answer
+// to a message fails it for good instead of retrying.
+@Component
+public class EmailChannel implements NotificationChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailChannel.class);
+
+    private static final Pattern SMTP_REPLY = Pattern.compile("\\s*([2-5]\\d\\d)[ -]");
+
+    private final JavaMailSender mailSender;
+    private final NotificationMessageFactory messageFactory;
+    private final int messagesPerConnection;
+    private final NotificationMetrics metrics;
+    private final SmtpRelayPool relayPool;
+    private final DomainThrottle domainThrottle;
+    private final ThreadLocal<SmtpConnection> connections = ThreadLocal.withInitial(SmtpConnection::new);
+
+    @Autowired
+    public EmailChannel(
+            JavaMailSender mailSender,
+            NotificationMessageFactory messageFactory,
+            @Value("${notification.channel.email.messages-per-connection:100}") int messagesPerConnection,
+            NotificationMetrics metrics,
+            SmtpRelayPool relayPool,
+            DomainThrottle domainThrottle) {
+        this.mailSender = mailSender;
+        this.messageFactory = messageFactory;
+        this.messagesPerConnection = messagesPerConnection;
+        this.metrics = metrics;
+        this.relayPool = relayPool;
+        this.domainThrottle = domainThrottle;
+    }
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.EMAIL;
+    }
+
+    @Override
+    public void validate(Notification notification) throws NotificationException {
+        if (notification.getEmail() == null || notification.getEmail().trim().isEmpty()) {
+            throw new NotificationException("❌ Email address is required for notification.");
+        }
+    }
+
+    // Takes the domain permits up front, so throttled mail never uses up the channel's rate limit
+    @Override
+    public List<DeliveryFailure> holdBack(List<Delivery> batch) {
+        List<DeliveryFailure> held = new ArrayList<>();
+        for (Delivery delivery : batch) {
+            String to = delivery.notification().getEmail();
+            if (!domainThrottle.tryAcquire(to)) {
+                held.add(DeliveryFailure.deferred(delivery, "Throttled for " + DomainThrottle.domainOf(to)));
+            }
+        }
+        return held;
+    }
+
+    @Override
+    public void giveBack(List<Delivery> batch) {
+        batch.forEach(delivery -> domainThrottle.giveBack(delivery.notification().getEmail()));
+    }
+
+    @Override
+    public List<DeliveryFailure> deliver(List<Delivery> batch) {
+        List<DeliveryFailure> failures = new ArrayList<>();
+        SmtpConnection connection = connections.get();
+        for (Delivery delivery : batch) {
+            String to = delivery.notification().getEmail();
+            boolean connected = false;
+            try {
+                NotificationTemplateEngine.RenderedMessage rendered = messageFactory.render(delivery);
+                Timer.Sample sample = metrics.start();
+                if (mailSender instanceof JavaMailSenderImpl sender) {
+                    MimeMessage message = buildMessage(sender.getSession(), to, rendered);
+                    Transport transport = connection.transport(sender);
+                    connected = true;
+                    transport.sendMessage(message, message.getAllRecipients());
+                    relayPool.succeeded(connection.relay);
+                } else {
+                    connected = true;
+                    mailSender.send(buildMessage(mailSender.createMimeMessage(), to, rendered));
+                }
+                metrics.stop(sample, NotificationMetrics.Stage.SMTP_SEND);
+                domainThrottle.delivered(to);
+            } catch (Exception e) {
+                logger.error("❌ Failed to send email for notification ID {}: {}", delivery.notification().getId(), e.getMessage());
+                int code = smtpReplyCode(e);
+                if (code >= 400 && code < 500) {
+                    domainThrottle.deferred(to);
+                }
+                // No reply at all (refused, timed out) or 421 closing: the relay's problem rather than the recipient's
+                if (connection.relay != null && e instanceof MessagingException && (code < 0 || code == 421)) {
+                    relayPool.failed(connection.relay);
+                }
+                connection.close();
+                // A 5xx answer to the message itself (no such mailbox, rejected content) is final; a 5xx while
+                // connecting (e.g. 535 bad credentials) is the relay's and stays retryable
+                failures.add(connected && code >= 500
+                        ? DeliveryFailure.permanent(delivery, e.getMessage())
+                        : new DeliveryFailure(delivery, e.getMessage()));
+            }
+        }
+        return failures;
+    }
+
+    // The SMTP reply code the failure carries (the server's reply text starts with it), or -1 without one
+    static int smtpReplyCode(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            Matcher matcher = t.getMessage() != null ? SMTP_REPLY.matcher(t.getMessage()) : null;
+            if (matcher != null && matcher.lookingAt()) {
+                return Integer.parseInt(matcher.group(1));
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void idle() {
+        connections.get().close();
+    }
+
+    static MimeMessage buildMessage(Session session, String to, NotificationTemplateEngine.RenderedMessage rendered)
+            throws MessagingException {
+        return buildMessage(new MimeMessage(session), to, rendered);
+    }
+
+    static MimeMessage buildMessage(MimeMessage message, String to, NotificationTemplateEngine.RenderedMessage rendered)
+            throws MessagingException {
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setTo(to);
+        helper.setSubject(rendered.subject());
+        helper.setText(rendered.body(), rendered.html());
+        message.saveChanges();
+        return message;
+    }
+
+    // One authenticated SMTP connection per worker, recycled after a fixed number of messages. Each (re)connect
+    // picks a relay from the pool, so workers shard across relays and move off one that went unhealthy.
+    private class SmtpConnection {
+
+        private Transport transport;
+        private SmtpRelayPool.Relay relay;
+        private int sentOnConnection;
+
+        Transport transport(JavaMailSenderImpl sender) throws MessagingException {
+            if (transport == null || sentOnConnection >= messagesPerConnection || !transport.isConnected()) {
+                close();
+                relay = relayPool.pick();
+                transport = sender.getSession().getTransport(sender.getProtocol());
+                transport.connect(relay.host(), relay.port(), relay.username(), relay.password());
+            }
+            sentOnConnection++;
+            return transport;
+        }
+
+        void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.debug("Ignoring error while closing SMTP transport: {}", e.getMessage());
+            }
+            transport = null;
+            sentOnConnection = 0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Pool for blocking remote lookups (Feign) that run in parallel off the caller thread.
+    // In virtual-thread mode every lookup gets its own virtual thread, capped only by a concurrency limit.
+    @Bean(name = "notificationIoExecutor")
+    public Executor notificationIoExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${notification.io.pool-size:32}") int poolSize,
+            @Value("${notification.io.queue-capacity:1000}") int queueCapacity,
+            @Value("${notification.io.virtual-concurrency-limit:2000}") int virtualConcurrencyLimit) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("notification-io-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notification-io-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Processes bulk-send chunks. Small and bounded on purpose: when it is full the submitting thread runs
+    // the chunk itself, which slows the upload/query reader down to the speed of persistence
+    @Bean(name = "notificationBulkExecutor")
+    public Executor notificationBulkExecutor(
+            @Value("${notification.bulk.workers:4}") int workers,
+            @Value("${notification.bulk.queue-capacity:8}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("notification-bulk-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Runs the per-key lanes of the notification consumer. Each listener thread waits for its own lanes, so at
+    // most concurrency x ordered-lanes.count lanes are pending; the queue is bounded regardless, and when it is
+    // full the listener thread runs the lane itself
+    @Bean(name = "notificationLaneExecutor")
+    public Executor notificationLaneExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${notification.consumer.lane-pool-size:16}") int poolSize,
+            @Value("${notification.consumer.lane-queue-capacity:64}") int queueCapacity) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("notification-lane-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(poolSize);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("notification-lane-");
+        executor.initialize();
+        return executor;
+    }
+}
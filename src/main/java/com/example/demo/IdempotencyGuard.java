@@ -0,0 +1,199 @@
+package com.example.demo;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Drops replayed send requests (Kafka redeliveries, rebalances, HTTP and @Retry retries).
+// A bounded LRU of recently committed keys answers most replays without a query; the
+// notification_idempotency primary key is the authority and closes the race between instances.
+@Component
+public class IdempotencyGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyGuard.class);
+
+    static final int MAX_KEY_LENGTH = 128;
+
+    private static final String CLAIM_SQL =
+            "INSERT IGNORE INTO notification_idempotency (idempotency_key, created_at) VALUES (?, ?)";
+    private static final String LINK_SQL =
+            "UPDATE notification_idempotency SET notification_id = ? WHERE idempotency_key = ?";
+    private static final String FIND_SQL =
+            "SELECT notification_id FROM notification_idempotency WHERE idempotency_key = ?";
+    private static final String FIND_EXISTING_SQL =
+            "SELECT idempotency_key FROM notification_idempotency WHERE idempotency_key IN (:keys)";
+    private static final String INSERT_SQL =
+            "INSERT INTO notification_idempotency (idempotency_key, notification_id, created_at) VALUES (?, ?, ?)";
+    private static final String PURGE_SQL =
+            "DELETE FROM notification_idempotency WHERE created_at < ? LIMIT ?";
+
+    private static final int PURGE_CHUNK = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final Duration retention;
+    private final Counter duplicates;
+    // key -> notification id, filled only after the claiming transaction commits
+    private final Cache<String, Long> recent;
+
+    @Autowired
+    public IdempotencyGuard(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${notification.idempotency.cache-size:100000}") long cacheSize,
+            @Value("${notification.idempotency.retention:7d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.retention = retention;
+        this.duplicates = meterRegistry.counter("notification.idempotency.duplicates");
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "idempotencyKeys");
+    }
+
+    // Client-supplied key if there is one, otherwise derived from (orderId, productId, type, event), the product
+    // only when set so the lines of one order stay apart; null when there is nothing stable to key on
+    static String keyFor(Notification notification, NotificationType type, NotificationEvent event, String discriminator) {
+        String key = notification.getIdempotencyKey();
+        if (key == null || key.isBlank()) {
+            if (notification.getOrderId() == null || type == null) {
+                return null;
+            }
+            key = notification.getOrderId()
+                    + (notification.getProductId() != null ? "/" + notification.getProductId() : "")
+                    + ":" + type + ":" + event
+                    + (discriminator != null ? ":" + digest(discriminator) : "");
+        }
+        return key.length() <= MAX_KEY_LENGTH ? key : digest(key);
+    }
+
+    // Claims the key for the current transaction; false when it was already claimed
+    public boolean tryClaim(String key) {
+        if (recent.getIfPresent(key) != null) {
+            duplicates.increment();
+            return false;
+        }
+        // Blocks while another open transaction holds the same key, so concurrent replays serialize here
+        if (jdbcTemplate.update(CLAIM_SQL, key, Timestamp.valueOf(LocalDateTime.now())) == 0) {
+            duplicates.increment();
+            return false;
+        }
+        return true;
+    }
+
+    // Point a claimed key at the notification it produced
+    public void link(String key, Long notificationId) {
+        jdbcTemplate.update(LINK_SQL, notificationId, key);
+        rememberAfterCommit(Map.of(key, notificationId));
+    }
+
+    // The notification a previously claimed key produced, if it is known
+    public Optional<Long> originalOf(String key) {
+        Long cached = recent.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return jdbcTemplate.query(FIND_SQL, rs -> rs.next() ? Optional.ofNullable(rs.getObject(1, Long.class)) : Optional.empty(), key);
+    }
+
+    // The subset of keys that were already claimed: one cache probe per key, one indexed query for the misses
+    public Set<String> existing(Collection<String> keys) {
+        Set<String> found = new HashSet<>();
+        List<String> misses = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            if (recent.getIfPresent(key) != null) {
+                found.add(key);
+            } else {
+                misses.add(key);
+            }
+        }
+        if (!misses.isEmpty()) {
+            found.addAll(namedJdbcTemplate.queryForList(FIND_EXISTING_SQL, Map.of("keys", misses), String.class));
+        }
+        duplicates.increment(found.size());
+        return found.isEmpty() ? Collections.emptySet() : found;
+    }
+
+    // Record the keys of an already-inserted batch. A concurrent duplicate fails the whole insert,
+    // rolling the batch back so its redelivery is filtered by existing()
+    public void recordAll(List<Notification> notifications) {
+        List<Notification> keyed = notifications.stream().filter(n -> n.getIdempotencyKey() != null).toList();
+        if (keyed.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, keyed, keyed.size(), (ps, n) -> {
+            ps.setString(1, n.getIdempotencyKey());
+            ps.setLong(2, n.getId());
+            ps.setTimestamp(3, now);
+        });
+        Map<String, Long> committed = new HashMap<>();
+        keyed.forEach(n -> committed.put(n.getIdempotencyKey(), n.getId()));
+        rememberAfterCommit(committed);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        int deleted;
+        int total = 0;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, cutoff, PURGE_CHUNK);
+            total += deleted;
+        } while (deleted == PURGE_CHUNK);
+        if (total > 0) {
+            logger.info("🧹 Purged {} idempotency keys older than {}", total, retention);
+        }
+    }
+
+    // Only committed keys go into the cache; a rolled-back claim must not block the replay that follows it
+    private void rememberAfterCommit(Map<String, Long> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recent.putAll(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recent.putAll(keys);
+            }
+        });
+    }
+
+    private static String digest(String value) {
+        return UUID.nameUUIDFromBytes(value.getBytes(StandardCharsets.UTF_8)).toString().toLowerCase(Locale.ROOT);
+    }
+}
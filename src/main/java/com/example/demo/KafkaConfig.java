@@ -1,23 +1,40 @@
 package com.example.demo;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.util.backoff.FixedBackOff;
 
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableKafka
@@ -29,46 +46,75 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
-    // For Order payloads
+    @Value("${notification.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${notification.consumer.concurrency:1}")
+    private int concurrency;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // json | avro: format of the NotificationRequest records this service publishes (retry tiers, DLT).
+    // Both formats are always accepted on the way in.
+    @Value("${notification.kafka.wire-format:json}")
+    private String wireFormat = "json";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // One tuned mapper for all Kafka payloads (lenient on unknown fields, java.time support); readers and
+    // writers derived from it are immutable and cache their (de)serializers, so they are built once and shared
+    private static final ObjectMapper WIRE_MAPPER = JacksonUtils.enhancedObjectMapper();
+    private static final ObjectReader NOTIFICATION_REQUEST_READER = WIRE_MAPPER.readerFor(NotificationRequest.class);
+
+    // For order events (OrderEventConsumer). Only the status fields of the order payload are read, into
+    // OrderStatusEvent; bad payloads come through as null values and are skipped by the listener.
     @Bean
-    public ConsumerFactory<String, Order> orderConsumerFactory() {
-        JsonDeserializer<Order> deserializer = new JsonDeserializer<>(Order.class);
-        deserializer.addTrustedPackages("*");
-        deserializer.setRemoveTypeHeaders(false);
-        deserializer.setUseTypeMapperForKey(false);
+    public ConsumerFactory<String, OrderStatusEvent> orderConsumerFactory() {
+        // Fixed target type, so type headers are neither needed nor trusted
+        JsonDeserializer<OrderStatusEvent> deserializer = new JsonDeserializer<>(OrderStatusEvent.class, WIRE_MAPPER, false);
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        DefaultKafkaConsumerFactory<String, OrderStatusEvent> factory = new DefaultKafkaConsumerFactory<>(
+                props, new StringDeserializer(), new ErrorHandlingDeserializer<>(deserializer));
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Order> orderKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, Order> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public ConcurrentKafkaListenerContainerFactory<String, OrderStatusEvent> orderKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, OrderStatusEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(orderConsumerFactory());
+        // Batches, so lookups and state writes are one query per poll rather than per event
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        applyThreadMode(factory);
+        // A batch-wide failure (e.g. DB down) is retried a few times before the batch is logged and skipped
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 3L)));
         return factory;
     }
 
     // For NotificationRequest payloads
     @Bean
     public ConsumerFactory<String, NotificationRequest> notificationConsumerFactory() {
-        ObjectMapper mapper = new ObjectMapper();
-        JavaType type = mapper.constructType(NotificationRequest.class);
-
-        JsonDeserializer<NotificationRequest> deserializer = new JsonDeserializer<>(type, mapper);
-        deserializer.addTrustedPackages("*");
-        deserializer.setRemoveTypeHeaders(false);
-        deserializer.setUseTypeMapperForKey(false);
-
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        // Bad payloads come through as null values so one poison record doesn't fail the whole poll
+        DefaultKafkaConsumerFactory<String, NotificationRequest> factory = new DefaultKafkaConsumerFactory<>(
+                props, new StringDeserializer(), new ErrorHandlingDeserializer<>(new NotificationRequestDeserializer(NOTIFICATION_REQUEST_READER)));
+        // Client metrics, including kafka.consumer.fetch.manager.records.lag(.max) per partition
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -76,7 +122,87 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, NotificationRequest> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(notificationConsumerFactory());
-        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 3)));
+        factory.setBatchListener(true);
+        // One consumer per partition at most; key-ordered lanes add parallelism inside a partition
+        factory.setConcurrency(concurrency);
+        applyThreadMode(factory);
+        // No in-listener backoff: a failed record is handed to the retry topics right away and the partition moves on
+        factory.setCommonErrorHandler(new DefaultErrorHandler(notificationDeadLetterRecoverer(), new FixedBackOff(0L, 0L)));
+        return factory;
+    }
+
+    // Single-record container for the retry topics; @RetryableTopic adds the delay tiers and the DLT
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, NotificationRequest> notificationRetryKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, NotificationRequest> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(notificationConsumerFactory());
+        applyThreadMode(factory);
+        return factory;
+    }
+
+    // Broadcast cache evictions: every instance joins with its own group and only needs messages from now on
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, NotificationLookupCache.Invalidation> cacheInvalidationKafkaListenerContainerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        ConcurrentKafkaListenerContainerFactory<String, NotificationLookupCache.Invalidation> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(NotificationLookupCache.Invalidation.class, WIRE_MAPPER, false))));
+        applyThreadMode(factory);
         return factory;
     }
+
+    @Bean
+    public KafkaTemplate<String, Object> notificationKafkaTemplate() {
+        NotificationRequestSerializer serializer = new NotificationRequestSerializer(
+                WIRE_MAPPER.writer(), NotificationConstants.WIRE_FORMAT_AVRO.equalsIgnoreCase(wireFormat));
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps(), new StringSerializer(), serializer));
+    }
+
+    // Raw payloads: records that could not be deserialized, and DLT replays
+    @Bean
+    public KafkaTemplate<String, byte[]> rawKafkaTemplate() {
+        Map<String, Object> props = producerProps();
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    // Unreadable records go straight to the DLT (retrying can't fix them), everything else to the retry topic
+    @Bean
+    public DeadLetterPublishingRecoverer notificationDeadLetterRecoverer() {
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(byte[].class, rawKafkaTemplate());
+        templates.put(Object.class, notificationKafkaTemplate());
+        return new DeadLetterPublishingRecoverer(templates, (consumerRecord, exception) -> new TopicPartition(
+                consumerRecord.value() == null ? NotificationConstants.DLT_TOPIC : NotificationConstants.RETRY_TOPIC, -1));
+    }
+
+    @Bean
+    public ConsumerFactory<String, byte[]> deadLetterConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return props;
+    }
+
+    // Our factories are built by hand, so Boot's spring.threads.virtual.enabled doesn't reach them
+    private void applyThreadMode(ConcurrentKafkaListenerContainerFactory<String, ?> factory) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-consumer-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
 }
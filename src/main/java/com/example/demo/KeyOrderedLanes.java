@@ -0,0 +1,86 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Splits one poll into lanes by ordering key (same key, same lane) and runs the lanes in parallel.
+// Within a lane items keep their poll order, so updates for one order are persisted (and get their outbox
+// rows) in sequence, while different orders from the same partition no longer wait on each other.
+// That is the whole guarantee: delivery runs through the multi-worker channel lanes afterwards, where two
+// rows of one order claimed in different batches may still go out in either order.
+@Component
+public class KeyOrderedLanes {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyOrderedLanes.class);
+
+    private final Executor executor;
+    private final boolean enabled;
+    private final int lanes;
+
+    @Autowired
+    public KeyOrderedLanes(
+            @Qualifier("notificationLaneExecutor") Executor executor,
+            @Value("${notification.consumer.ordered-lanes.enabled:false}") boolean enabled,
+            @Value("${notification.consumer.ordered-lanes.count:8}") int lanes) {
+        this.executor = executor;
+        this.enabled = enabled;
+        this.lanes = lanes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // The lowest item that did not complete; every item below it is done, so offsets can be committed up to there
+    public record Failure(int index, Throwable cause) {
+    }
+
+    // Runs handler once per non-empty lane and waits for all of them; empty when every lane completed
+    public <T> Optional<Failure> process(List<T> items, Function<T, Object> keyOf, Consumer<List<T>> handler) {
+        List<List<Integer>> laneIndexes = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            laneIndexes.add(new ArrayList<>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            Object key = keyOf.apply(items.get(i));
+            laneIndexes.get(key == null ? 0 : Math.floorMod(key.hashCode(), lanes)).add(i);
+        }
+
+        List<CompletableFuture<Failure>> results = new ArrayList<>(lanes);
+        for (List<Integer> indexes : laneIndexes) {
+            if (indexes.isEmpty()) {
+                continue;
+            }
+            List<T> lane = indexes.stream().map(items::get).toList();
+            // A failed lane reports its first index; nothing after it in the lane has run to completion
+            results.add(CompletableFuture.supplyAsync(() -> {
+                handler.accept(lane);
+                return (Failure) null;
+            }, executor).exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                logger.error("❌ Lane starting at record {} failed: {}", indexes.get(0), cause.getMessage());
+                return new Failure(indexes.get(0), cause);
+            }));
+        }
+
+        return results.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .min(Comparator.comparingInt(Failure::index));
+    }
+}
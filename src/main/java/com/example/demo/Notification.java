@@ -2,6 +2,9 @@ package com.example.demo;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -9,7 +12,9 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -17,7 +22,13 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "notification")
+@Table(name = "notification", indexes = {
+        @Index(name = "idx_notification_customer_id", columnList = "customer_id, id"),
+        @Index(name = "idx_notification_order_id", columnList = "order_id, sent_at"),
+        @Index(name = "idx_notification_order_reference", columnList = "order_reference"),
+        @Index(name = "idx_notification_type", columnList = "type"),
+        @Index(name = "idx_notification_sent_sent_at", columnList = "sent, sent_at")
+})
 @Getter
 @Setter
 @Builder(toBuilder = true)
@@ -40,12 +51,31 @@ public class Notification {
 	private String orderReference;
 	private String paymentMethod;
 	private String email;
+	private String phoneNumber;  // SMS recipient, E.164
 	private String address;
+	private String locale;  // e.g. "hi-IN"; picks a localized template when one exists
 
     @Enumerated(EnumType.STRING)
 
     private NotificationType type;
 
-    private LocalDateTime sentAt;
+    private LocalDateTime sentAt;  // set when delivered
     private boolean sent;  // Removed the duplicate isSent field
+
+    // Requested delivery time; the due time lives on the outbox row (available_at). Null means right away.
+    @Transient
+    private LocalDateTime sendAt;
+
+    // Client-supplied dedup key (Idempotency-Key header); kept in notification_idempotency, not here
+    @Transient
+    private String idempotencyKey;
+
+    // Digest rendering context (see NotificationMessageFactory); never stored or returned
+    @Transient
+    @JsonIgnore
+    private Consolidation consolidation;
+
+    @Transient
+    @JsonIgnore
+    private List<Notification> digestEntries;
 }
\ No newline at end of file
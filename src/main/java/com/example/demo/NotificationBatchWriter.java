@@ -0,0 +1,115 @@
+package com.example.demo;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+// Hibernate cannot batch inserts for IDENTITY ids, so batches go through plain JDBC
+@Repository
+public class NotificationBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notification (customer_id, order_id, product_id, message, product_name, description, "
+            + "quantity, price, order_type, order_reference, payment_method, email, phone_number, address, locale, type, sent_at, sent) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO notification_outbox (notification_id, channel, event, coalesce_key, status, attempts, available_at, created_at) "
+            + "VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public NotificationBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Insert all notifications in one batch and copy the generated ids back onto them
+    public List<Notification> insertAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return notifications;
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bind(ps, notifications.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return notifications.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < notifications.size() && i < keys.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            notifications.get(i).setId(((Number) key).longValue());
+        }
+        return notifications;
+    }
+
+    // Queue outbox rows for already-inserted notifications in one batch, each on its own type's channel.
+    // Returns the distinct due times written.
+    public Set<LocalDateTime> insertOutbox(List<Notification> notifications, NotificationEvent event,
+            Function<Notification, LocalDateTime> dueAt, NotificationDigestPolicy digestPolicy) {
+        if (notifications.isEmpty()) {
+            return Set.of();
+        }
+        Set<LocalDateTime> dueTimes = new HashSet<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, notifications, notifications.size(), (ps, n) -> {
+            String coalesceKey = digestPolicy.coalesceKey(n, n.getType(), event);
+            LocalDateTime availableAt = digestPolicy.availableAt(coalesceKey, dueAt.apply(n));
+            dueTimes.add(availableAt);
+            ps.setLong(1, n.getId());
+            ps.setString(2, n.getType().name());
+            ps.setString(3, event.name());
+            ps.setString(4, coalesceKey);
+            ps.setTimestamp(5, Timestamp.valueOf(availableAt));
+            ps.setTimestamp(6, now);
+        });
+        return dueTimes;
+    }
+
+    private static void bind(PreparedStatement ps, Notification n) throws SQLException {
+        ps.setObject(1, n.getCustomerId(), Types.BIGINT);
+        ps.setObject(2, n.getOrderId(), Types.BIGINT);
+        ps.setObject(3, n.getProductId(), Types.BIGINT);
+        ps.setString(4, n.getMessage());
+        ps.setString(5, n.getProductName());
+        ps.setString(6, n.getDescription());
+        ps.setInt(7, n.getQuantity());
+        ps.setBigDecimal(8, n.getPrice());
+        ps.setString(9, n.getOrderType());
+        ps.setString(10, n.getOrderReference());
+        ps.setString(11, n.getPaymentMethod());
+        ps.setString(12, n.getEmail());
+        ps.setString(13, n.getPhoneNumber());
+        ps.setString(14, n.getAddress());
+        ps.setString(15, n.getLocale());
+        ps.setString(16, n.getType() != null ? n.getType().name() : null);
+        ps.setTimestamp(17, n.getSentAt() != null ? Timestamp.valueOf(n.getSentAt()) : null);
+        ps.setBoolean(18, n.isSent());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One delivery channel per NotificationType. ChannelDispatcher gives every channel its own
+// queue, workers, bulkhead, rate limiter and batch size, so a slow channel can't starve the others.
+public interface NotificationChannel {
+
+    NotificationType type();
+
+    // Reject notifications this channel could never deliver (e.g. no recipient address)
+    void validate(Notification notification) throws NotificationException;
+
+    // Entries of a batch not to send right now (e.g. their recipient domain is throttled), as deferred failures.
+    // Called before the channel's rate limiter permits are taken; only the rest is passed to deliver.
+    default List<DeliveryFailure> holdBack(List<Delivery> batch) {
+        return List.of();
+    }
+
+    // The entries that passed holdBack are not sent after all (no channel permits): return what holdBack took
+    default void giveBack(List<Delivery> batch) {
+    }
+
+    // Deliver one batch on the calling worker thread; returns the entries that failed
+    List<DeliveryFailure> deliver(List<Delivery> batch);
+
+    // Called on a worker thread when its queue has been idle, e.g. to close pooled connections
+    default void idle() {
+    }
+
+    // An outbox entry ready to go out, with the notification it refers to. A digest also carries the
+    // entries merged into it; they share its outcome.
+    record Delivery(NotificationOutbox outbox, Notification notification, List<Delivery> coalesced) {
+
+        public Delivery(NotificationOutbox outbox, Notification notification) {
+            this(outbox, notification, List.of());
+        }
+
+        public boolean isDigest() {
+            return !coalesced.isEmpty();
+        }
+
+        // This entry and every entry merged into it
+        public List<Delivery> all() {
+            if (coalesced.isEmpty()) {
+                return List.of(this);
+            }
+            List<Delivery> all = new ArrayList<>(coalesced.size() + 1);
+            all.add(this);
+            all.addAll(coalesced);
+            return all;
+        }
+    }
+
+    // RETRY: attempted and failed, tried again later up to max-attempts.
+    // DEFERRED: not attempted (e.g. throttled), so it goes back to the outbox without using up an attempt.
+    // PERMANENT: rejected for good (e.g. SMTP 5xx, no such mailbox); retrying can't help.
+    record DeliveryFailure(Delivery delivery, String error, Kind kind) {
+
+        public enum Kind {
+            RETRY, DEFERRED, PERMANENT
+        }
+
+        public DeliveryFailure(Delivery delivery, String error) {
+            this(delivery, error, Kind.RETRY);
+        }
+
+        public static DeliveryFailure deferred(Delivery delivery, String error) {
+            return new DeliveryFailure(delivery, error, Kind.DEFERRED);
+        }
+
+        public static DeliveryFailure permanent(Delivery delivery, String error) {
+            return new DeliveryFailure(delivery, error, Kind.PERMANENT);
+        }
+
+        public boolean deferred() {
+            return kind == Kind.DEFERRED;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Registry of the channel implementations, keyed by the NotificationType they deliver
+@Component
+public class NotificationChannels {
+
+    private final Map<NotificationType, NotificationChannel> channels = new EnumMap<>(NotificationType.class);
+
+    @Autowired
+    public NotificationChannels(List<NotificationChannel> channels) {
+        for (NotificationChannel channel : channels) {
+            if (this.channels.put(channel.type(), channel) != null) {
+                throw new IllegalStateException("More than one channel registered for " + channel.type());
+            }
+        }
+    }
+
+    public NotificationChannel get(NotificationType type) {
+        NotificationChannel channel = channels.get(type);
+        if (channel == null) {
+            throw new IllegalStateException("No channel registered for " + type);
+        }
+        return channel;
+    }
+
+    public Map<NotificationType, NotificationChannel> all() {
+        return channels;
+    }
+
+    public void validate(Notification notification) throws NotificationException {
+        validate(notification, notification.getType());
+    }
+
+    // Validate for delivery on the given channel, which may differ from the notification's own type
+    public void validate(Notification notification, NotificationType type) throws NotificationException {
+        if (type == null) {
+            throw new NotificationException("❌ Notification type is required.");
+        }
+        get(type).validate(notification);
+    }
+}
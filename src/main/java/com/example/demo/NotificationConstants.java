@@ -8,5 +8,30 @@ public class NotificationConstants {
 	
     public static final String NOTIFICATION_FETCH_ERROR = "Failed to fetch notifications: {}";
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    // Client-supplied dedup key: HTTP request header and Kafka record header
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENCY_KEY_KAFKA_HEADER = "idempotency-key";
+
+    // Failed notification-topic records are retried on RETRY_TOPIC and its delay tiers (RETRY_TOPIC-<delay ms>),
+    // then parked on DLT_TOPIC until replayed
+    public static final String NOTIFICATION_TOPIC = "notification-topic";
+    public static final String RETRY_TOPIC = "notification-topic-retry";
+    public static final String DLT_TOPIC = RETRY_TOPIC + "-dlt";
+
+    // Order lifecycle events from the order service (see OrderEventConsumer)
+    public static final String ORDER_EVENTS_TOPIC = "order-events";
+
+    // Lookup cache evictions, read by every instance (see NotificationLookupCache)
+    public static final String CACHE_INVALIDATION_TOPIC = "notification-cache-invalidation";
+
+    // Wire format of a NotificationRequest record; absent means JSON
+    public static final String WIRE_FORMAT_KAFKA_HEADER = "notification-format";
+    public static final String WIRE_FORMAT_AVRO = "avro";
+
     
 }
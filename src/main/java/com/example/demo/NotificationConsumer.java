@@ -1,51 +1,159 @@
 package com.example.demo;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.stereotype.Service;
 
 @Service
 public class NotificationConsumer {
 
+    // NotificationRequest is shared with the producers and has no phone number; SMS requests carry it as a header
+    static final String PHONE_NUMBER_HEADER = "notification-phone-number";
+
+    // Optional deferred delivery, as an ISO local date-time (e.g. 2025-06-01T09:30) in the service's zone
+    static final String SEND_AT_HEADER = "notification-send-at";
+
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private KeyOrderedLanes orderedLanes;
+
+    @Autowired
+    private NotificationMetrics notificationMetrics;
+
+    @Autowired
+    private DeadLetterPublishingRecoverer notificationDeadLetterRecoverer;
+
     private static final Logger logger = LoggerFactory.getLogger(NotificationConsumer.class);
 
     @KafkaListener(
-        topics = "notification-topic",
+        topics = NotificationConstants.NOTIFICATION_TOPIC,
         groupId = "notification-service",
         containerFactory = "notificationKafkaListenerContainerFactory"
     )
-    public void listen(NotificationRequest request) {
-    	logger.info("📩 Received Notification for customerId: {}", request.getCustomerId());
-    	if (request.getCustomerId() == null || request.getEmail() == null) {
-    	    logger.warn("❗ Missing required fields in NotificationRequest: {}", request);
-    	    return;
-    	}
+    public void listen(List<ConsumerRecord<String, NotificationRequest>> records) {
+    	logger.info("📩 Received batch of {} notifications", records.size());
+
+        if (!orderedLanes.isEnabled()) {
+            process(records);
+            return;
+        }
+
+        // Lanes run in parallel; on failure the error handler commits up to the lowest unfinished record
+        // and redelivers from there (records already done in other lanes are dropped as duplicates, by their
+        // derived or record keys)
+        orderedLanes.process(records, NotificationConsumer::orderingKey, this::process).ifPresent(failure -> {
+            throw new BatchListenerFailedException(failure.cause().getMessage(), failure.cause(), failure.index());
+        });
+    }
+
+    // Updates for one order (or, without an order, one customer) must be applied in sequence
+    static Object orderingKey(ConsumerRecord<String, NotificationRequest> consumerRecord) {
+        NotificationRequest request = consumerRecord.value();
+        if (request != null && request.getOrderId() != null) {
+            return request.getOrderId();
+        }
+        if (request != null && request.getCustomerId() != null) {
+            return request.getCustomerId();
+        }
+        return consumerRecord.key();
+    }
 
+    private void process(List<ConsumerRecord<String, NotificationRequest>> records) {
+        List<Notification> batch = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, NotificationRequest> consumerRecord : records) {
+            NotificationRequest request = consumerRecord.value();
+            if (request == null) {
+                // ErrorHandlingDeserializer hands us null for payloads it could not read; park the raw bytes on the DLT
+                logger.warn("❗ Dead-lettering undeserializable record at {}-{}@{}",
+                        consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset());
+                notificationDeadLetterRecoverer.accept(consumerRecord, null, new IllegalArgumentException("Undeserializable payload"));
+                continue;
+            }
+            // Recipient details (email, phone number) are checked per channel by the service
+            if (request.getCustomerId() == null || request.getType() == null) {
+                logger.warn("❗ Missing required fields in NotificationRequest: {}", request);
+                continue;
+            }
+            batch.add(toNotification(consumerRecord));
+        }
+        notificationMetrics.consumed(batch.size(), records.size() - batch.size());
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            notificationService.sendNotifications(batch);
+        } catch (RuntimeException e) {
+            // Record-level failures are handled in the service; this is a batch-wide failure (e.g. DB down),
+            // so let the container's error handler hand the records to the retry topics
+        	logger.error("❌ Failed to process notification batch: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    static Notification toNotification(ConsumerRecord<String, NotificationRequest> consumerRecord) {
+        Notification notification = toNotification(consumerRecord.value());
+        notification.setPhoneNumber(header(consumerRecord, PHONE_NUMBER_HEADER));
+        // Redeliveries carry the same key; without one the service keys on (orderId, productId, type, event),
+        // and a record without an order on its own position, so a redelivered batch doesn't send it twice
+        String idempotencyKey = header(consumerRecord, NotificationConstants.IDEMPOTENCY_KEY_KAFKA_HEADER);
+        if (idempotencyKey == null && notification.getOrderId() == null) {
+            idempotencyKey = "record:" + consumerRecord.topic() + "-" + consumerRecord.partition() + "@" + consumerRecord.offset();
+        }
+        notification.setIdempotencyKey(idempotencyKey);
+        notification.setSendAt(sendAt(consumerRecord));
+        return notification;
+    }
+
+    // A malformed send-at is not worth losing the notification over; it is delivered right away instead
+    private static LocalDateTime sendAt(ConsumerRecord<String, NotificationRequest> consumerRecord) {
+        String value = header(consumerRecord, SEND_AT_HEADER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
         try {
-            Notification notification = Notification.builder()
-                    .customerId(request.getCustomerId())
-                    .orderId(request.getOrderId())
-                    .productId(request.getProductId())
-                    .orderReference(request.getOrderReference())
-                    .email(request.getEmail())
-                    .message(request.getMessage())
-                    .address(request.getAddress())
-                    .paymentMethod(request.getPaymentMethod())
-                    .price(request.getPrice())
-                    .quantity(request.getQuantity())
-                    .type(request.getType())
-                    .build();
-
-            notificationService.sendNotification(notification);
-
-        } catch (Exception e) {
-        	logger.error("❌ Failed to process notification: {}", e.getMessage(), e);
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            logger.warn("❗ Ignoring malformed {} header '{}' at {}-{}@{}", SEND_AT_HEADER, value,
+                    consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset());
+            return null;
         }
     }
 
+    private static String header(ConsumerRecord<String, NotificationRequest> consumerRecord, String name) {
+        Header header = consumerRecord.headers().lastHeader(name);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    static Notification toNotification(NotificationRequest request) {
+        return Notification.builder()
+                .customerId(request.getCustomerId())
+                .orderId(request.getOrderId())
+                .productId(request.getProductId())
+                .orderReference(request.getOrderReference())
+                .email(request.getEmail())
+                .message(request.getMessage())
+                .address(request.getAddress())
+                .paymentMethod(request.getPaymentMethod())
+                .price(request.getPrice())
+                .quantity(request.getQuantity())
+                .type(request.getType())
+                .build();
+    }
+
 }
@@ -4,11 +4,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import jakarta.mail.MessagingException;
+import jakarta.servlet.http.HttpServletRequest;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,24 +21,32 @@ public class NotificationController {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
 
-    private static final String NOTIFICATION_FETCH_ERROR = "Failed to fetch notifications: {}";
-
     private final NotificationService notificationService;
+    private final DeadLetterReplayer deadLetterReplayer;
+    private final BulkSendService bulkSendService;
 
     @Autowired
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService, DeadLetterReplayer deadLetterReplayer,
+            BulkSendService bulkSendService) {
         this.notificationService = notificationService;
+        this.deadLetterReplayer = deadLetterReplayer;
+        this.bulkSendService = bulkSendService;
     }
 
     @PostMapping("/send")
-    public ResponseEntity<Notification> sendNotification(@RequestBody Notification notification) throws MessagingException {
-        logger.info("Received request to send notification to customer ID: {}", notification.getCustomerId());
+    public ResponseEntity<Notification> sendNotification(
+            @RequestBody Notification notification,
+            @RequestHeader(value = NotificationConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        logger.info(NotificationLogSampler.SAMPLED, "Received request to send notification to customer ID: {}", notification.getCustomerId());
+        if (idempotencyKey != null) {
+            notification.setIdempotencyKey(idempotencyKey);
+        }
         try {
             Notification sentNotification = notificationService.sendNotification(notification);
-            logger.info("Notification sent successfully to customer ID: {}", notification.getCustomerId());
+            logger.info(NotificationLogSampler.SAMPLED, "Notification sent successfully to customer ID: {}", notification.getCustomerId());
             return ResponseEntity.ok(sentNotification);
         } catch (NotificationException e) {
-        	logger.error(NOTIFICATION_FETCH_ERROR, e.getMessage());
+        	logger.error(NotificationConstants.NOTIFICATION_FETCH_ERROR, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
@@ -44,41 +55,65 @@ public class NotificationController {
     public ResponseEntity<Notification> sendOrderNotification(
             @PathVariable("orderId") Long orderId,
             @RequestParam NotificationType type,
-            @RequestParam String message) throws MessagingException {
-        logger.info("Received request to send order notification for Order ID: {}", orderId);
+            @RequestParam String message,
+            @RequestHeader(value = NotificationConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        logger.info(NotificationLogSampler.SAMPLED, "Received request to send order notification for Order ID: {}", orderId);
         try {
-            Notification notification = notificationService.sendOrderNotification(orderId, type, message);
-            logger.info("Order notification sent successfully for Order ID: {}", orderId);
+            Notification notification = notificationService.sendOrderNotification(orderId, type, message, idempotencyKey);
+            logger.info(NotificationLogSampler.SAMPLED, "Order notification sent successfully for Order ID: {}", orderId);
             return ResponseEntity.ok(notification);
         } catch (NotificationNotFoundException e) {
             logger.error("Notification not found for Order ID: {}", orderId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         } catch (NotificationException e) {
-        	logger.error(NOTIFICATION_FETCH_ERROR, e.getMessage());
+        	logger.error(NotificationConstants.NOTIFICATION_FETCH_ERROR, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    // Queue an "arrives today" reminder for the morning of the order's delivery date
+    @PostMapping("/order/{orderId}/delivery-reminder")
+    public ResponseEntity<Notification> scheduleDeliveryReminder(
+            @PathVariable("orderId") Long orderId,
+            @RequestParam NotificationType type) {
+        logger.info(NotificationLogSampler.SAMPLED, "Received request to schedule a delivery reminder for Order ID: {}", orderId);
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(notificationService.scheduleDeliveryReminder(orderId, type));
+        } catch (NotificationNotFoundException e) {
+            logger.error("Notification not found for Order ID: {}", orderId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (NotificationException e) {
+            // No delivery date yet, or it has passed
+            logger.error("Cannot schedule delivery reminder for Order ID {}: {}", orderId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(null);
+        }
+    }
+
     @GetMapping("/all")
-    public ResponseEntity<List<Notification>> getAllNotifications() {
-        logger.info("Received request to fetch all notifications");
+    public ResponseEntity<NotificationPage<NotificationSummary>> getAllNotifications(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "" + NotificationConstants.DEFAULT_PAGE_SIZE) int limit) {
+        logger.info(NotificationLogSampler.SAMPLED, "Received request to fetch notifications page after cursor {}", cursor);
         try {
-            List<Notification> notifications = notificationService.getAllNotifications();
-            logger.info("Fetched {} notifications", notifications.size());
-            return ResponseEntity.ok(notifications);
+            NotificationPage<NotificationSummary> page = notificationService.getAllNotifications(cursor, clampLimit(limit));
+            logger.info(NotificationLogSampler.SAMPLED, "Fetched {} notifications", page.items().size());
+            return ResponseEntity.ok(page);
         } catch (Exception e) {
-        	logger.error(NOTIFICATION_FETCH_ERROR, e.getMessage());
+        	logger.error(NotificationConstants.NOTIFICATION_FETCH_ERROR, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Notification>> getNotificationsByCustomer(@PathVariable("customerId") Long customerId) {
-        logger.info("Received request to fetch notifications for Customer ID: {}", customerId);
+    public ResponseEntity<NotificationPage<NotificationSummary>> getNotificationsByCustomer(
+            @PathVariable("customerId") Long customerId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "" + NotificationConstants.DEFAULT_PAGE_SIZE) int limit) {
+        logger.info(NotificationLogSampler.SAMPLED, "Received request to fetch notifications for Customer ID: {}", customerId);
         try {
-            List<Notification> notifications = notificationService.getNotificationsByCustomer(customerId);
-            logger.info("Fetched {} notifications for Customer ID: {}", notifications.size(), customerId);
-            return ResponseEntity.ok(notifications);
+            NotificationPage<NotificationSummary> page = notificationService.getNotificationsByCustomer(customerId, cursor, clampLimit(limit));
+            logger.info(NotificationLogSampler.SAMPLED, "Fetched {} notifications for Customer ID: {}", page.items().size(), customerId);
+            return ResponseEntity.ok(page);
         } catch (NotificationNotFoundException e) {
             logger.error("No notifications found for Customer ID: {}", customerId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
@@ -88,12 +123,20 @@ public class NotificationController {
         }
     }
 
+    // Full export as newline-delimited JSON, streamed row by row
+    @GetMapping(value = "/export", produces = NotificationConstants.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportNotifications(@RequestParam(required = false) Long customerId) {
+        logger.info("Received request to export notifications for Customer ID: {}", customerId);
+        StreamingResponseBody body = out -> notificationService.exportNotifications(customerId, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NotificationConstants.NDJSON)).body(body);
+    }
+
     @GetMapping("/order/{orderId}")
     public ResponseEntity<Optional<Notification>> getNotificationsByOrder(@PathVariable("orderId") Long orderId) {
-        logger.info("Received request to fetch notifications for Order ID: {}", orderId);
+        logger.info(NotificationLogSampler.SAMPLED, "Received request to fetch notifications for Order ID: {}", orderId);
         try {
             Optional<Notification> notification = notificationService.getNotificationsByOrder(orderId);
-            logger.info("Fetched notification for Order ID: {}", orderId);
+            logger.info(NotificationLogSampler.SAMPLED, "Fetched notification for Order ID: {}", orderId);
             return ResponseEntity.ok(notification);
         } catch (NotificationNotFoundException e) {
             logger.error("No notifications found for Order ID: {}", orderId);
@@ -106,10 +149,10 @@ public class NotificationController {
 
     @PutMapping("/mark-sent/{notificationId}")
     public ResponseEntity<Void> markNotificationAsSent(@PathVariable("notificationId") Long notificationId) {
-        logger.info("Received request to mark notification ID {} as sent", notificationId);
+        logger.info(NotificationLogSampler.SAMPLED, "Received request to mark notification ID {} as sent", notificationId);
         try {
             notificationService.markNotificationAsSent(notificationId);
-            logger.info("Notification ID {} marked as sent", notificationId);
+            logger.info(NotificationLogSampler.SAMPLED, "Notification ID {} marked as sent", notificationId);
             return ResponseEntity.ok().build();
         } catch (NotificationNotFoundException e) {
             logger.error("Notification ID {} not found", notificationId);
@@ -119,4 +162,66 @@ public class NotificationController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    // Bulk variant: one set-based UPDATE per chunk; returns how many were newly marked (already sent or unknown ids don't count)
+    @PutMapping("/mark-sent")
+    public ResponseEntity<Integer> markNotificationsAsSent(@RequestBody List<Long> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Received request to mark {} notifications as sent", notificationIds.size());
+        try {
+            return ResponseEntity.ok(notificationService.markNotificationsAsSent(notificationIds));
+        } catch (Exception e) {
+            logger.error(NotificationConstants.NOTIFICATION_FETCH_ERROR, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Put up to limit dead-lettered records back on notification-topic; returns how many were replayed
+    @PostMapping("/dlt/replay")
+    public ResponseEntity<Integer> replayDeadLetters(
+            @RequestParam(defaultValue = "" + NotificationConstants.DEFAULT_PAGE_SIZE) int limit) {
+        logger.info("Received request to replay up to {} dead-lettered notifications", limit);
+        try {
+            return ResponseEntity.ok(deadLetterReplayer.replay(clampLimit(limit)));
+        } catch (Exception e) {
+            logger.error("Failed to replay dead-lettered notifications: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Campaign-scale send: NDJSON (one notification per line) or a JSON array, streamed into chunked batch
+    // inserts. Answers 202 once the body is read; poll /bulk/{jobId} for the rest.
+    @PostMapping(value = "/bulk", consumes = { NotificationConstants.NDJSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<BulkSendJob.Status> sendBulk(
+            @RequestParam(defaultValue = "CAMPAIGN") NotificationEvent event,
+            HttpServletRequest request) throws IOException {
+        logger.info("Received bulk send request for event {}", event);
+        BulkSendJob job = bulkSendService.submit(request.getInputStream(), event);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.status());
+    }
+
+    // Same message to every known customer reachable on the channel (or only the listed customer IDs)
+    @PostMapping("/bulk/campaign")
+    public ResponseEntity<BulkSendJob.Status> sendCampaign(
+            @RequestBody BulkSendService.Campaign campaign,
+            @RequestHeader(value = NotificationConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (campaign.type() == null || campaign.message() == null || campaign.message().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Received {} campaign request", campaign.type());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(bulkSendService.submit(campaign, idempotencyKey).status());
+    }
+
+    @GetMapping("/bulk/{jobId}")
+    public ResponseEntity<BulkSendJob.Status> getBulkStatus(@PathVariable("jobId") String jobId) {
+        return bulkSendService.status(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, NotificationConstants.MAX_PAGE_SIZE));
+    }
 }
\ No newline at end of file
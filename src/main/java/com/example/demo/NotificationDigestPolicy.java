@@ -0,0 +1,54 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Digest mode: outbox rows for the same customer, order reference, channel and event are held back for a short
+// window and then delivered as one digest message. The window lives in the outbox (available_at +
+// coalesce_key), so buffered notifications survive a restart like any other queued delivery.
+@Component
+public class NotificationDigestPolicy {
+
+    private final boolean enabled;
+    private final Duration window;
+
+    @Autowired
+    public NotificationDigestPolicy(
+            @Value("${notification.digest.enabled:false}") boolean enabled,
+            @Value("${notification.digest.window:10s}") Duration window) {
+        this.enabled = enabled;
+        this.window = window;
+    }
+
+    // Null when the row should go out on its own. Only update and bulk traffic is held back: transactional
+    // messages (order confirmations) and anything timed on purpose (delivery reminders, rows with a send time)
+    // are never delayed. The event is part of the key, so e.g. a status change never merges into an
+    // order-update digest.
+    public String coalesceKey(Notification notification, NotificationType channel, NotificationEvent event) {
+        if (!enabled || notification.getCustomerId() == null || channel == null) {
+            return null;
+        }
+        if (NotificationPriority.of(event) == NotificationPriority.TRANSACTIONAL
+                || event == NotificationEvent.DELIVERY_REMINDER || notification.getSendAt() != null) {
+            return null;
+        }
+        String order = notification.getOrderReference() != null ? notification.getOrderReference()
+                : notification.getOrderId() != null ? notification.getOrderId().toString() : "-";
+        return notification.getCustomerId() + ":" + order + ":" + channel + ":" + event;
+    }
+
+    // A coalescable row waits out the window; the relay sweeps later arrivals for the same key into it
+    public LocalDateTime availableAt(String coalesceKey, LocalDateTime availableAt) {
+        return coalesceKey != null ? availableAt.plus(window) : availableAt;
+    }
+
+    // Latest due time a row may have to be swept into a digest claimed at `now`: rows that arrived by now
+    // (due by now + window), not ones scheduled for later
+    public LocalDateTime coalesceUntil(LocalDateTime now) {
+        return now.plus(window);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Timer;
+
+// Runs product and consolidation lookups in parallel with per-call timeouts.
+// Each distinct product/order is fetched once per call, so batches with repeated ids stay cheap.
+@Component
+public class NotificationEnricher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationEnricher.class);
+
+    private final ProductDetailsCache productDetailsCache;
+    private final ConsolidationServiceClient consolidationServiceClient;
+    private final Executor executor;
+    private final long productTimeoutMs;
+    private final long consolidationTimeoutMs;
+    private final boolean consolidationEnabled;
+    private final NotificationMetrics metrics;
+
+    @Autowired
+    public NotificationEnricher(
+            ProductDetailsCache productDetailsCache,
+            ConsolidationServiceClient consolidationServiceClient,
+            @Qualifier("notificationIoExecutor") Executor executor,
+            @Value("${notification.enrichment.product-timeout-ms:800}") long productTimeoutMs,
+            @Value("${notification.enrichment.consolidation-timeout-ms:800}") long consolidationTimeoutMs,
+            @Value("${notification.enrichment.consolidation.enabled:false}") boolean consolidationEnabled,
+            NotificationMetrics metrics) {
+        this.productDetailsCache = productDetailsCache;
+        this.consolidationServiceClient = consolidationServiceClient;
+        this.executor = executor;
+        this.productTimeoutMs = productTimeoutMs;
+        this.consolidationTimeoutMs = consolidationTimeoutMs;
+        this.consolidationEnabled = consolidationEnabled;
+        this.metrics = metrics;
+    }
+
+    public Enrichment enrich(Notification notification) {
+        return enrichAll(List.of(notification)).get(0);
+    }
+
+    // Returns one Enrichment per notification, in the same order
+    public List<Enrichment> enrichAll(List<Notification> notifications) {
+        Map<Long, CompletableFuture<String>> products = new HashMap<>();
+        Map<Long, CompletableFuture<Consolidation>> consolidations = new HashMap<>();
+
+        // Lookups whose result can't be used (no id, or consolidation disabled) are never started
+        for (Notification notification : notifications) {
+            if (notification.getProductId() != null) {
+                products.computeIfAbsent(notification.getProductId(), this::lookupProduct);
+            }
+            if (consolidationEnabled && notification.getOrderId() != null) {
+                consolidations.computeIfAbsent(notification.getOrderId(), this::lookupConsolidation);
+            }
+        }
+
+        List<CompletableFuture<?>> all = new ArrayList<>(products.values());
+        all.addAll(consolidations.values());
+        CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).join();
+
+        List<Enrichment> result = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            CompletableFuture<String> product = products.get(notification.getProductId());
+            CompletableFuture<Consolidation> consolidation = consolidations.get(notification.getOrderId());
+            result.add(new Enrichment(
+                    product != null ? product.join() : null,
+                    consolidation != null ? consolidation.join() : null));
+        }
+        return result;
+    }
+
+    // Consolidation details for one order regardless of the enrichment switch (digests need them); null if unavailable
+    public Consolidation consolidation(Long orderId) {
+        return orderId != null ? lookupConsolidation(orderId).join() : null;
+    }
+
+    private CompletableFuture<String> lookupProduct(Long productId) {
+        Timer.Sample sample = metrics.start();
+        return guard(productDetailsCache.get(productId)
+                        .thenApply(product -> product.map(Product::getProductName).orElse("Unknown Product")),
+                productTimeoutMs, "product details for ID " + productId)
+                .whenComplete((name, e) -> metrics.stop(sample, NotificationMetrics.Stage.PRODUCT_LOOKUP));
+    }
+
+    private CompletableFuture<Consolidation> lookupConsolidation(Long orderId) {
+        Timer.Sample sample = metrics.start();
+        return lookup(() -> consolidationServiceClient.getConsolidationDetails(orderId),
+                consolidationTimeoutMs, "order details for ID " + orderId)
+                .whenComplete((consolidation, e) -> metrics.stop(sample, NotificationMetrics.Stage.CONSOLIDATION_LOOKUP));
+    }
+
+    private <T> CompletableFuture<T> lookup(Supplier<T> call, long timeoutMs, String what) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return guard(future, timeoutMs, what);
+    }
+
+    // A lookup that fails, times out or is rejected by a saturated pool just yields null.
+    // Works on a copy so a timeout here never completes a future shared through the product cache.
+    private <T> CompletableFuture<T> guard(CompletableFuture<T> future, long timeoutMs, String what) {
+        return future.thenApply(value -> value)
+                .completeOnTimeout(null, timeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    logger.warn("⚠️ Could not fetch {}: {}", what, e.getMessage());
+                    return null;
+                });
+    }
+
+    public record Enrichment(String productName, Consolidation consolidation) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo;
+
+public enum NotificationEvent {
+
+	ORDER_CONFIRMATION, ORDER_UPDATE,
+
+	// Bulk/marketing message; the text comes from the notification's message
+	CAMPAIGN,
+
+	// Order status change from the order-event stream; the message holds the new status
+	ORDER_STATUS,
+
+	// Scheduled for the morning of the order's delivery date
+	DELIVERY_REMINDER,
+
+	// Several coalesced notifications delivered as one message (see NotificationDigestPolicy)
+	DIGEST
+}
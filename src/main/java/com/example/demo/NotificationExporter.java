@@ -0,0 +1,65 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+// Writes notifications as NDJSON straight from a streaming JDBC result set.
+// Each row is detached once written, so memory stays flat however many rows match.
+@Component
+public class NotificationExporter {
+
+    private final NotificationRepository notificationRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter writer;
+
+    @Autowired
+    public NotificationExporter(
+            NotificationRepository notificationRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.notificationRepository = notificationRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writer = objectMapper.writerFor(Notification.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    // Export all notifications, or only one customer's when customerId is set
+    public void export(Long customerId, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Notification> rows = customerId != null
+                    ? notificationRepository.streamByCustomerIdOrderByIdAsc(customerId)
+                    : notificationRepository.streamAllByOrderByIdAsc()) {
+                rows.forEach(notification -> {
+                    write(notification, out);
+                    entityManager.detach(notification);
+                });
+            }
+        });
+    }
+
+    private void write(Notification notification, OutputStream out) {
+        try {
+            writer.writeValue(out, notification);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One row per accepted send request. The primary key is what makes a replayed request a no-op;
+// rows older than the retention window are purged by IdempotencyGuard.
+@Entity
+@Table(name = "notification_idempotency", indexes = {
+        @Index(name = "idx_idempotency_created_at", columnList = "created_at")
+})
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationIdempotencyKey {
+
+    @Id
+    @Column(length = IdempotencyGuard.MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    private Long notificationId;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,34 @@
+package com.example.demo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+// Keeps 1 in sampleRate of the INFO-and-below lines marked SAMPLED (the per-request/per-notification lines) and
+// denies the rest before the event is even built. WARN and ERROR always pass. Wired in by logback-spring.xml
+// under the "prod" profile; without it every line is logged as before.
+public class NotificationLogSampler extends TurboFilter {
+
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private final AtomicLong counter = new AtomicLong();
+    private int sampleRate = 100;
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || !marker.contains(SAMPLED) || level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % sampleRate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Read-through cache for the polled lookups: first page of a customer's notifications and the notification of an order.
+// Writers evict the customer and order they touched once their transaction commits, locally and on every other
+// replica through a broadcast topic (each instance reads it with its own consumer group). TTL bounds staleness
+// if an invalidation message is ever lost.
+@Component
+public class NotificationLookupCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationLookupCache.class);
+
+    public record Invalidation(Set<Long> customerIds, Set<Long> orderIds) {
+    }
+
+    private record CustomerPageKey(Long customerId, int limit) {
+    }
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final boolean enabled;
+    private final boolean broadcast;
+    private final Cache<CustomerPageKey, NotificationPage<NotificationSummary>> customerPages;
+    private final Cache<Long, Optional<Notification>> orders;
+    // Page sizes seen so far (at most MAX_PAGE_SIZE values), so a customer's pages can be evicted by exact key
+    private final Set<Integer> pageSizes = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public NotificationLookupCache(
+            @Qualifier("notificationKafkaTemplate") KafkaTemplate<String, Object> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${notification.lookup-cache.enabled:true}") boolean enabled,
+            @Value("${notification.lookup-cache.broadcast:true}") boolean broadcast,
+            @Value("${notification.lookup-cache.maximum-size:10000}") long maximumSize,
+            @Value("${notification.lookup-cache.ttl:30s}") Duration ttl) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.enabled = enabled;
+        this.broadcast = broadcast;
+        this.customerPages = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+        this.orders = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, customerPages, "notificationsByCustomer");
+        CaffeineCacheMetrics.monitor(meterRegistry, orders, "notificationByOrder");
+    }
+
+    // Only the first page is cached; that is what status pages poll, and later pages are keyed by a moving cursor
+    public NotificationPage<NotificationSummary> customerPage(Long customerId, Long cursor, int limit,
+            Supplier<NotificationPage<NotificationSummary>> loader) {
+        if (!enabled || customerId == null || cursor != null) {
+            return loader.get();
+        }
+        pageSizes.add(limit);
+        return customerPages.get(new CustomerPageKey(customerId, limit), k -> loader.get());
+    }
+
+    // Unknown orders are cached as empty too; the write that creates them evicts the entry
+    public Optional<Notification> order(Long orderId, Supplier<Optional<Notification>> loader) {
+        if (!enabled || orderId == null) {
+            return loader.get();
+        }
+        return orders.get(orderId, k -> loader.get());
+    }
+
+    public void evict(Notification notification) {
+        evict(List.of(notification));
+    }
+
+    public void evict(Collection<Notification> notifications) {
+        if (!enabled || notifications.isEmpty()) {
+            return;
+        }
+        evict(new Invalidation(
+                notifications.stream().map(Notification::getCustomerId).filter(Objects::nonNull).collect(Collectors.toSet()),
+                notifications.stream().map(Notification::getOrderId).filter(Objects::nonNull).collect(Collectors.toSet())));
+    }
+
+    // For set-based updates that never load the rows
+    public void evictRefs(Collection<NotificationRef> refs) {
+        if (!enabled || refs.isEmpty()) {
+            return;
+        }
+        evict(new Invalidation(
+                refs.stream().map(NotificationRef::customerId).filter(Objects::nonNull).collect(Collectors.toSet()),
+                refs.stream().map(NotificationRef::orderId).filter(Objects::nonNull).collect(Collectors.toSet())));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Evicting before commit would let a concurrent read put the old rows straight back
+    private void evict(Invalidation invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAndBroadcast(invalidation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictAndBroadcast(invalidation);
+            }
+        });
+    }
+
+    @KafkaListener(
+        topics = NotificationConstants.CACHE_INVALIDATION_TOPIC,
+        groupId = "notification-cache-#{T(java.util.UUID).randomUUID()}",
+        containerFactory = "cacheInvalidationKafkaListenerContainerFactory",
+        autoStartup = "${notification.lookup-cache.broadcast:true}"
+    )
+    public void onInvalidation(Invalidation invalidation) {
+        // Our own messages come back too; evicting twice is harmless
+        evictLocally(invalidation);
+    }
+
+    private void evictAndBroadcast(Invalidation invalidation) {
+        evictLocally(invalidation);
+        if (!broadcast) {
+            return;
+        }
+        kafkaTemplate.send(NotificationConstants.CACHE_INVALIDATION_TOPIC, invalidation).whenComplete((result, e) -> {
+            if (e != null) {
+                logger.warn("⚠️ Could not broadcast cache invalidation, other replicas stay stale for up to the TTL: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void evictLocally(Invalidation invalidation) {
+        if (invalidation.orderIds() != null) {
+            orders.invalidateAll(invalidation.orderIds());
+        }
+        if (invalidation.customerIds() != null) {
+            for (Long customerId : invalidation.customerIds()) {
+                customerPages.invalidateAll(pageSizes.stream().map(limit -> new CustomerPageKey(customerId, limit)).toList());
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Renders the outgoing message for an outbox entry from its template and the stored notification
+@Component
+public class NotificationMessageFactory {
+
+    private final NotificationTemplateEngine templateEngine;
+    private final NotificationMetrics metrics;
+    private final NotificationEnricher notificationEnricher;
+
+    @Autowired
+    public NotificationMessageFactory(NotificationTemplateEngine templateEngine, NotificationMetrics metrics,
+            NotificationEnricher notificationEnricher) {
+        this.templateEngine = templateEngine;
+        this.metrics = metrics;
+        this.notificationEnricher = notificationEnricher;
+    }
+
+    public NotificationTemplateEngine.RenderedMessage render(NotificationChannel.Delivery delivery) {
+        if (delivery.isDigest()) {
+            return renderDigest(delivery);
+        }
+        Notification notification = delivery.outbox().getEvent() == NotificationEvent.DELIVERY_REMINDER
+                ? withDeliveryDate(delivery.notification())
+                : delivery.notification();
+        return metrics.time(NotificationMetrics.Stage.TEMPLATE_RENDER, () -> templateEngine.render(
+                delivery.outbox().getEvent(), delivery.outbox().getChannel(), notification.getLocale(), notification));
+    }
+
+    // A delivery reminder stores its delivery date (ISO) as the message; rows from before that render it as N/A
+    private static Notification withDeliveryDate(Notification reminder) {
+        if (reminder.getMessage() == null) {
+            return reminder;
+        }
+        Consolidation consolidation = new Consolidation();
+        try {
+            consolidation.setDeliveryDate(LocalDate.parse(reminder.getMessage()));
+        } catch (DateTimeParseException e) {
+            return reminder;
+        }
+        return reminder.toBuilder().consolidation(consolidation).build();
+    }
+
+    // One message for the whole burst: the consolidated order's totals plus a line per merged notification
+    private NotificationTemplateEngine.RenderedMessage renderDigest(NotificationChannel.Delivery delivery) {
+        Notification lead = delivery.notification();
+        Notification digest = lead.toBuilder()
+                .consolidation(notificationEnricher.consolidation(lead.getOrderId()))
+                .digestEntries(delivery.all().stream().map(NotificationChannel.Delivery::notification).toList())
+                .build();
+        return metrics.time(NotificationMetrics.Stage.TEMPLATE_RENDER, () -> templateEngine.render(
+                NotificationEvent.DIGEST, delivery.outbox().getChannel(), lead.getLocale(), digest));
+    }
+}
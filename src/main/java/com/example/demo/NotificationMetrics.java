@@ -0,0 +1,96 @@
+package com.example.demo;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Meters for the send pipeline. Tags are enums only (stage, type, outcome), so cardinality stays fixed.
+// Timers publish histogram buckets for Prometheus plus p50/p95/p99.
+@Component
+public class NotificationMetrics {
+
+    public enum Stage {
+        VALIDATION, PRODUCT_LOOKUP, CONSOLIDATION_LOOKUP, DB_SAVE, TEMPLATE_RENDER, SMTP_SEND, SMS_SEND, PUSH_SEND
+    }
+
+    public enum Outcome {
+        ACCEPTED, DUPLICATE, INVALID, FALLBACK
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter consumedRecords;
+    private final Counter skippedRecords;
+
+    @Autowired
+    public NotificationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("notification.stage.duration")
+                    .description("Time spent in one stage of the send pipeline")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        registry.gauge("notification.requests.in_flight", inFlight);
+        consumedRecords = registry.counter("notification.consumer.records", "outcome", "processed");
+        skippedRecords = registry.counter("notification.consumer.records", "outcome", "skipped");
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, Stage stage) {
+        sample.stop(stageTimers.get(stage));
+    }
+
+    public <T> T time(Stage stage, Supplier<T> work) {
+        return stageTimers.get(stage).record(work);
+    }
+
+    public void time(Stage stage, Runnable work) {
+        stageTimers.get(stage).record(work);
+    }
+
+    // Requests by notification type and what became of them; deliveries are counted per channel by ChannelDispatcher
+    public void count(NotificationType type, Outcome outcome) {
+        count(type, outcome, 1);
+    }
+
+    public void count(NotificationType type, Outcome outcome, int amount) {
+        if (amount > 0) {
+            Counter.builder("notification.requests")
+                    .tag("type", type != null ? type.name().toLowerCase(Locale.ROOT) : "unknown")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(registry)
+                    .increment(amount);
+        }
+    }
+
+    // Records from notification-topic handed to the service vs. dropped as unreadable or incomplete
+    public void consumed(int processed, int skipped) {
+        consumedRecords.increment(processed);
+        skippedRecords.increment(skipped);
+    }
+
+    // Brackets a request-path send so the in-flight gauge counts it
+    public void enter() {
+        inFlight.incrementAndGet();
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One row per notification waiting for delivery. The relay claims due rows; a claimed row's
+// availableAt doubles as its lease expiry, so rows held by a crashed instance become due again.
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_outbox_status_available_at", columnList = "status, available_at"),
+        @Index(name = "idx_outbox_status_event_available_at", columnList = "status, event, available_at"),
+        @Index(name = "idx_outbox_coalesce_key", columnList = "coalesce_key, status")
+})
+@Getter
+@Setter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long notificationId;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationType channel;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationEvent event;
+
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status;
+
+    // Rows sharing a key are delivered together as one digest; null for rows that go out on their own
+    private String coalesceKey;
+
+    private int attempts;
+    private LocalDateTime availableAt;
+    private LocalDateTime createdAt;
+    private String lastError;
+}
@@ -0,0 +1,60 @@
+package com.example.demo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Lock due rows of the given events (one priority class) for this instance; rows locked by other instances
+    // are skipped, not waited on
+    @Query(value = "SELECT * FROM notification_outbox "
+            + "WHERE status IN ('PENDING', 'IN_FLIGHT') AND event IN (:events) AND available_at <= :now "
+            + "ORDER BY available_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutbox> lockDue(@Param("now") LocalDateTime now, @Param("events") Collection<String> events,
+            @Param("limit") int limit);
+
+    // The wheel ticks at which pending rows in (from, to] fall due, counted in ticks from `origin` (a tick boundary)
+    // and rounded up, one per tick rather than one per row; served by the status/available_at index
+    @Query(value = "SELECT DISTINCT CEIL(TIMESTAMPDIFF(MICROSECOND, :origin, available_at) / (1000.0 * :tickMs)) "
+            + "FROM notification_outbox WHERE status = 'PENDING' AND available_at > :from AND available_at <= :to",
+            nativeQuery = true)
+    List<Number> findPendingDueTicks(@Param("origin") LocalDateTime origin, @Param("tickMs") long tickMillis,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Lock the pending rows that will be merged into digests with already-claimed rows, late arrivals included.
+    // Only rows due by `until` (the end of their digest window): a later send-at, quiet-hours or reminder row
+    // waits for its own time.
+    @Query(value = "SELECT * FROM notification_outbox "
+            + "WHERE coalesce_key IN (:keys) AND status = 'PENDING' AND id NOT IN (:claimed) AND available_at <= :until "
+            + "ORDER BY id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutbox> lockCoalescing(@Param("keys") Collection<String> keys, @Param("claimed") Collection<Long> claimed,
+            @Param("until") LocalDateTime until);
+
+    // Take the lease on claimed rows
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.example.demo.OutboxStatus.IN_FLIGHT, "
+            + "o.attempts = o.attempts + 1, o.availableAt = :leaseUntil WHERE o.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Put rows that were never attempted back in the queue in one statement. The lease counted an attempt,
+    // so it is handed back; the last error stays as it is.
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.example.demo.OutboxStatus.PENDING, o.availableAt = :availableAt, "
+            + "o.attempts = CASE WHEN o.attempts > 0 THEN o.attempts - 1 ELSE 0 END WHERE o.id IN :ids")
+    int release(@Param("ids") Collection<Long> ids, @Param("availableAt") LocalDateTime availableAt);
+
+    // Put a row back in the queue (delivery failed or the dispatcher was full)
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :status, o.availableAt = :availableAt, o.lastError = :error "
+            + "WHERE o.id = :id")
+    int reschedule(@Param("id") Long id, @Param("status") OutboxStatus status,
+            @Param("availableAt") LocalDateTime availableAt, @Param("error") String error);
+}
@@ -0,0 +1,14 @@
+package com.example.demo;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One keyset page of notifications, newest first. Pass nextCursor back as ?cursor= to get the
+// following page; it is null on the last page.
+public record NotificationPage<T>(List<T> items, Long nextCursor) {
+
+    static <T> NotificationPage<T> of(List<T> items, int limit, Function<T, Long> idOf) {
+        Long next = items.size() == limit ? idOf.apply(items.get(items.size() - 1)) : null;
+        return new NotificationPage<>(items, next);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Scheduling weights per priority class, from notification.priority.<class>.weight / .max-share.
+// weight: relative share of claims and of dispatch batches while several classes have work.
+// max-share: fraction of a lane's workers the class may occupy at once, so the classes above it always find a free one.
+@Component
+public class NotificationPriorities {
+
+    private final Map<NotificationPriority, Integer> weights = new EnumMap<>(NotificationPriority.class);
+    private final Map<NotificationPriority, Double> maxShares = new EnumMap<>(NotificationPriority.class);
+
+    @Autowired
+    public NotificationPriorities(Environment environment) {
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            String prefix = "notification.priority." + priority.name().toLowerCase(Locale.ROOT) + ".";
+            weights.put(priority, Math.max(1, environment.getProperty(prefix + "weight", Integer.class, priority.defaultWeight())));
+            maxShares.put(priority, environment.getProperty(prefix + "max-share", Double.class, priority.defaultMaxShare()));
+        }
+    }
+
+    // Defaults only; for code that runs without a Spring environment
+    public NotificationPriorities() {
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            weights.put(priority, priority.defaultWeight());
+            maxShares.put(priority, priority.defaultMaxShare());
+        }
+    }
+
+    public int weight(NotificationPriority priority) {
+        return weights.get(priority);
+    }
+
+    // At least one worker, whatever the share
+    public int maxWorkers(NotificationPriority priority, int workers) {
+        return Math.max(1, Math.min(workers, (int) Math.floor(maxShares.get(priority) * workers)));
+    }
+
+    // Split a claim limit by weight; every class gets at least one row so none can starve
+    public Map<NotificationPriority, Integer> split(int limit) {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        Map<NotificationPriority, Integer> quotas = new EnumMap<>(NotificationPriority.class);
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            quotas.put(priority, Math.max(1, limit * weights.get(priority) / total));
+        }
+        return quotas;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Delivery classes, highest first. Each class gets its own share of every channel lane (see NotificationPriorities):
+// order confirmations are time-critical, order updates and digests less so, campaigns can wait.
+public enum NotificationPriority {
+
+	TRANSACTIONAL(6, 1.0), UPDATE(3, 1.0), BULK(1, 0.5);
+
+	private final int defaultWeight;
+	private final double defaultMaxShare;
+
+	NotificationPriority(int defaultWeight, double defaultMaxShare) {
+		this.defaultWeight = defaultWeight;
+		this.defaultMaxShare = defaultMaxShare;
+	}
+
+	public static NotificationPriority of(NotificationEvent event) {
+		if (event == null) {
+			return TRANSACTIONAL;
+		}
+		return switch (event) {
+			case ORDER_CONFIRMATION -> TRANSACTIONAL;
+			case ORDER_UPDATE, ORDER_STATUS, DIGEST, DELIVERY_REMINDER -> UPDATE;
+			case CAMPAIGN -> BULK;
+		};
+	}
+
+	// Outbox rows are classed by their event, so no separate column is needed
+	public List<String> eventNames() {
+		return Arrays.stream(NotificationEvent.values()).filter(e -> of(e) == this).map(Enum::name).toList();
+	}
+
+	int defaultWeight() {
+		return defaultWeight;
+	}
+
+	double defaultMaxShare() {
+		return defaultMaxShare;
+	}
+}
@@ -0,0 +1,5 @@
+package com.example.demo;
+
+// Just enough of a notification to know which cached lookups it appears in
+public record NotificationRef(Long id, Long customerId, Long orderId) {
+}
@@ -1,9 +1,21 @@
 package com.example.demo;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -11,18 +23,45 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Find all notifications for a specific customer
     List<Notification> findByCustomerId(Long customerId);
 
-    // Find all notifications for a specific order
-    Optional<Notification> findByOrderId(Long orderId);
+    // Keyset pages, newest first: pass the last id of the previous page as the cursor.
+    // Projected to NotificationSummary so only the listed columns are read.
+    List<NotificationSummary> findByIdLessThanOrderByIdDesc(Long cursor, Pageable pageable);
+
+    List<NotificationSummary> findByCustomerIdAndIdLessThanOrderByIdDesc(Long customerId, Long cursor, Pageable pageable);
+
+    // Streaming reads for exports; MySQL Connector/J only streams rows with fetch size Integer.MIN_VALUE
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<Notification> streamAllByOrderByIdAsc();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<Notification> streamByCustomerIdOrderByIdAsc(Long customerId);
+
+    // The order's primary notification (its first row). An order can have more than one row, e.g. a delivery
+    // reminder, so a plain findByOrderId would fail on a non-unique result.
+    Optional<Notification> findFirstByOrderIdOrderByIdAsc(Long orderId);
+
+    // Notifications for many orders in one query (order-event batches)
+    List<Notification> findByOrderIdIn(Collection<Long> orderIds);
 
     // Find all notifications by order reference
     List<Notification> findByOrderReference(String orderReference);
 
-    // Find all notifications that are not yet sent
-    List<Notification> findBySentFalse();
-
     // Find all notifications of a specific type (EMAIL, SMS, PUSH_NOTIFICATION)
     List<Notification> findByType(NotificationType type);
 
+    // Flip the sent flag (and record when) in one statement without loading the rows; only those columns are
+    // written, and rows someone else already marked are not touched again. Returns how many rows changed.
+    @Modifying
+    @Query("UPDATE Notification n SET n.sent = true, n.sentAt = :sentAt WHERE n.id IN :ids AND n.sent = false")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    // Re-arm a notification for an order update, writing only the columns the update changes
+    @Modifying
+    @Query("UPDATE Notification n SET n.message = :message, n.sent = false, n.sentAt = null WHERE n.id = :id")
+    int rearm(@Param("id") Long id, @Param("message") String message);
+
+    List<NotificationRef> findRefsByIdIn(Collection<Long> ids);
+
     // Find latest notification for a specific order
     Notification findTopByOrderIdOrderBySentAtDesc(Long orderId);
 }
@@ -0,0 +1,130 @@
+package com.example.demo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+// Avro binary codec for NotificationRequest against avro/notification-request.avsc. NotificationRequest lives in
+// the shared library, so this maps field by field instead of using generated classes. Reader/writer are thread-safe.
+public final class NotificationRequestAvro {
+
+    static final String SCHEMA_LOCATION = "/avro/notification-request.avsc";
+
+    private static final Schema SCHEMA = loadSchema();
+    private static final Schema PRICE_SCHEMA = nonNull(SCHEMA.getField("price").schema());
+    private static final Schema TYPE_SCHEMA = nonNull(SCHEMA.getField("type").schema());
+    private static final LogicalTypes.Decimal PRICE_TYPE = (LogicalTypes.Decimal) PRICE_SCHEMA.getLogicalType();
+    private static final Conversions.DecimalConversion DECIMAL = new Conversions.DecimalConversion();
+
+    private static final GenericDatumWriter<GenericRecord> WRITER = new GenericDatumWriter<>(SCHEMA);
+    private static final GenericDatumReader<GenericRecord> READER = new GenericDatumReader<>(SCHEMA);
+
+    private NotificationRequestAvro() {
+    }
+
+    // IllegalArgumentException when a value doesn't fit the schema (see toBytes)
+    public static byte[] serialize(NotificationRequest request) {
+        GenericRecord avro = new GenericData.Record(SCHEMA);
+        avro.put("customerId", request.getCustomerId());
+        avro.put("orderId", request.getOrderId());
+        avro.put("productId", request.getProductId());
+        avro.put("orderReference", request.getOrderReference());
+        avro.put("email", request.getEmail());
+        avro.put("message", request.getMessage());
+        avro.put("address", request.getAddress());
+        avro.put("paymentMethod", request.getPaymentMethod());
+        avro.put("price", toBytes(request.getPrice()));
+        Number quantity = request.getQuantity();
+        avro.put("quantity", quantity != null ? quantity.intValue() : 0);
+        avro.put("type", request.getType() != null ? new GenericData.EnumSymbol(TYPE_SCHEMA, request.getType().name()) : null);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        try {
+            WRITER.write(avro, encoder);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static NotificationRequest deserialize(byte[] data) throws IOException {
+        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, null);
+        GenericRecord avro = READER.read(null, decoder);
+
+        NotificationRequest request = new NotificationRequest();
+        request.setCustomerId((Long) avro.get("customerId"));
+        request.setOrderId((Long) avro.get("orderId"));
+        request.setProductId((Long) avro.get("productId"));
+        request.setOrderReference(string(avro.get("orderReference")));
+        request.setEmail(string(avro.get("email")));
+        request.setMessage(string(avro.get("message")));
+        request.setAddress(string(avro.get("address")));
+        request.setPaymentMethod(string(avro.get("paymentMethod")));
+        request.setPrice(fromBytes((ByteBuffer) avro.get("price")));
+        request.setQuantity((int) avro.get("quantity"));
+        Object type = avro.get("type");
+        request.setType(type != null ? NotificationType.valueOf(type.toString()) : null);
+        return request;
+    }
+
+    // Never rounds: a price with more decimals or digits than decimal(12,2) can't be written as Avro
+    private static ByteBuffer toBytes(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        BigDecimal scaled;
+        try {
+            scaled = price.setScale(PRICE_TYPE.getScale(), RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Price " + price.toPlainString() + " has more than "
+                    + PRICE_TYPE.getScale() + " decimals");
+        }
+        if (scaled.precision() > PRICE_TYPE.getPrecision()) {
+            throw new IllegalArgumentException("Price " + price.toPlainString() + " has more than "
+                    + PRICE_TYPE.getPrecision() + " digits");
+        }
+        return DECIMAL.toBytes(scaled, PRICE_SCHEMA, PRICE_TYPE);
+    }
+
+    private static BigDecimal fromBytes(ByteBuffer price) {
+        return price != null ? DECIMAL.fromBytes(price, PRICE_SCHEMA, PRICE_TYPE) : null;
+    }
+
+    // Strings are decoded as Avro Utf8
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static Schema nonNull(Schema union) {
+        return union.getTypes().stream().filter(s -> s.getType() != Schema.Type.NULL).findFirst().orElseThrow();
+    }
+
+    private static Schema loadSchema() {
+        try (InputStream in = NotificationRequestAvro.class.getResourceAsStream(SCHEMA_LOCATION)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing Avro schema " + SCHEMA_LOCATION);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
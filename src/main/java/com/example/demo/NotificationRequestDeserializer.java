@@ -0,0 +1,47 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+// Reads NotificationRequest values in either wire format: Avro when the record says so, JSON otherwise.
+// Binds straight to NotificationRequest with a prebuilt reader; type headers from producers are ignored.
+public class NotificationRequestDeserializer implements Deserializer<NotificationRequest> {
+
+    private static final byte[] AVRO = NotificationConstants.WIRE_FORMAT_AVRO.getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectReader jsonReader;
+
+    public NotificationRequestDeserializer(ObjectReader jsonReader) {
+        this.jsonReader = jsonReader;
+    }
+
+    @Override
+    public NotificationRequest deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public NotificationRequest deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return isAvro(headers) ? NotificationRequestAvro.deserialize(data) : jsonReader.readValue(data);
+        } catch (IOException e) {
+            throw new SerializationException("Can't deserialize NotificationRequest from " + topic, e);
+        }
+    }
+
+    private static boolean isAvro(Headers headers) {
+        Header header = headers != null ? headers.lastHeader(NotificationConstants.WIRE_FORMAT_KAFKA_HEADER) : null;
+        return header != null && Arrays.equals(AVRO, header.value());
+    }
+}
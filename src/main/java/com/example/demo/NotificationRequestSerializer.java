@@ -0,0 +1,60 @@
+package com.example.demo;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+// Writes NotificationRequest values (retry tiers, DLT) in the configured wire format and stamps the format header,
+// replacing the one copied from the source record so a JSON retry of an Avro record is still read correctly
+public class NotificationRequestSerializer implements Serializer<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRequestSerializer.class);
+
+    private static final byte[] AVRO = NotificationConstants.WIRE_FORMAT_AVRO.getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectWriter jsonWriter;
+    private final boolean avro;
+
+    public NotificationRequestSerializer(ObjectWriter jsonWriter, boolean avro) {
+        this.jsonWriter = jsonWriter;
+        this.avro = avro;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (headers != null) {
+            headers.remove(NotificationConstants.WIRE_FORMAT_KAFKA_HEADER);
+        }
+        if (data == null) {
+            return null;
+        }
+        // Avro is only readable with the header, so without headers fall back to JSON. So do records Avro can't
+        // carry exactly (a sub-cent price): JSON keeps the value as sent and is always consumed.
+        if (avro && headers != null && data instanceof NotificationRequest request) {
+            try {
+                byte[] bytes = NotificationRequestAvro.serialize(request);
+                headers.add(NotificationConstants.WIRE_FORMAT_KAFKA_HEADER, AVRO);
+                return bytes;
+            } catch (IllegalArgumentException e) {
+                logger.warn("⚠️ Writing order {} to {} as JSON: {}", request.getOrderId(), topic, e.getMessage());
+            }
+        }
+        try {
+            return jsonWriter.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Can't serialize " + data.getClass().getSimpleName() + " for " + topic, e);
+        }
+    }
+}
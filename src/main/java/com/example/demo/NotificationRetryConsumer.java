@@ -0,0 +1,81 @@
+package com.example.demo;
+
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.SameIntervalTopicReuseStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Second chance for records the main consumer could not process (e.g. database unavailable).
+// Each failed attempt moves the record to the next, longer-delayed tier topic; the delay is waited out by
+// pausing that tier's partition, so neither the main topic nor the other tiers are blocked. After the last
+// tier the record is parked on the DLT, from where it can be replayed via DeadLetterReplayer.
+@Service
+public class NotificationRetryConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetryConsumer.class);
+
+    private final NotificationService notificationService;
+    private final Counter deadLettered;
+
+    @Autowired
+    public NotificationRetryConsumer(NotificationService notificationService, MeterRegistry meterRegistry) {
+        this.notificationService = notificationService;
+        this.deadLettered = meterRegistry.counter("notification.consumer.dead_lettered");
+    }
+
+    @RetryableTopic(
+        attempts = "${notification.retry.attempts:4}",
+        backoff = @Backoff(
+            delayExpression = "${notification.retry.initial-delay-ms:5000}",
+            multiplierExpression = "${notification.retry.multiplier:6}",
+            maxDelayExpression = "${notification.retry.max-delay-ms:600000}"),
+        retryTopicSuffix = "",
+        dltTopicSuffix = "-dlt",
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_DELAY_VALUE,
+        sameIntervalTopicReuseStrategy = SameIntervalTopicReuseStrategy.SINGLE_TOPIC,
+        kafkaTemplate = "notificationKafkaTemplate",
+        exclude = DeserializationException.class
+    )
+    @KafkaListener(
+        topics = NotificationConstants.RETRY_TOPIC,
+        groupId = "notification-service",
+        containerFactory = "notificationRetryKafkaListenerContainerFactory"
+    )
+    public void retry(ConsumerRecord<String, NotificationRequest> consumerRecord) {
+        NotificationRequest request = consumerRecord.value();
+        if (request == null) {
+            // ErrorHandlingDeserializer hands us null for payloads it could not read; no tier can fix that,
+            // so it goes straight to the DLT (DeserializationException is not retried)
+            logger.warn("❗ Dead-lettering undeserializable record at {}-{}@{}",
+                    consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset());
+            throw new DeserializationException("Undeserializable payload", null, false, null);
+        }
+        logger.info("🔁 Retrying notification for customer ID {} from {}", request.getCustomerId(), consumerRecord.topic());
+        Notification notification = NotificationConsumer.toNotification(consumerRecord);
+        // Throws on failure, which moves the record on to the next tier
+        notificationService.sendNotifications(List.of(notification));
+    }
+
+    @DltHandler
+    public void deadLetter(ConsumerRecord<String, NotificationRequest> consumerRecord,
+            @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        deadLettered.increment();
+        logger.error("☠️ Notification for customer ID {} moved to {} after all retries: {}",
+                consumerRecord.value() != null ? consumerRecord.value().getCustomerId() : null, consumerRecord.topic(), error);
+    }
+}
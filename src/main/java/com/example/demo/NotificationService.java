@@ -1,27 +1,47 @@
 package com.example.demo;
 
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 
 import java.util.Optional;
-import jakarta.mail.MessagingException;
 
 public interface NotificationService {
 
     // Send a notification (Email, SMS, Push)
-    Notification sendNotification(Notification notification)throws NotificationException, MessagingException;
+    Notification sendNotification(Notification notification)throws NotificationException;
 
-    // Send a notification based on order details
-    Notification sendOrderNotification(Long orderId, NotificationType type, String message)throws NotificationNotFoundException, NotificationException, MessagingException;
+    // Send a whole batch of notifications; invalid or failing entries are skipped, not propagated
+    List<Notification> sendNotifications(List<Notification> notifications);
 
-    // Get all notifications
-    List<Notification> getAllNotifications();
+    // Same, rendering the messages for the given event (e.g. CAMPAIGN for bulk sends)
+    List<Notification> sendNotifications(List<Notification> notifications, NotificationEvent event);
 
-    // Get notifications for a specific customer
-    List<Notification> getNotificationsByCustomer(Long customerId)throws NotificationNotFoundException;
+    // Send a notification based on order details; a repeated idempotency key (may be null) is a no-op
+    Notification sendOrderNotification(Long orderId, NotificationType type, String message, String idempotencyKey)throws NotificationNotFoundException, NotificationException;
+
+    // Notify customers of order status changes: one lookup for the whole batch; orders without a notification
+    // are skipped, and a change already notified (same transition at the same stream position) is a no-op
+    List<Notification> sendOrderStatusNotifications(List<OrderStatusChange> changes);
+
+    // Schedule a "arrives today" reminder for the order's delivery date; a repeat for the same date is a no-op
+    Notification scheduleDeliveryReminder(Long orderId, NotificationType type)throws NotificationNotFoundException, NotificationException;
+
+    // Get one keyset page of all notifications, newest first (cursor null for the first page)
+    NotificationPage<NotificationSummary> getAllNotifications(Long cursor, int limit);
+
+    // Get one keyset page of notifications for a specific customer
+    NotificationPage<NotificationSummary> getNotificationsByCustomer(Long customerId, Long cursor, int limit)throws NotificationNotFoundException;
+
+    // Stream notifications (optionally for one customer) to the given output as NDJSON
+    void exportNotifications(Long customerId, OutputStream out);
 
     // Get notifications for a specific order
     Optional<Notification> getNotificationsByOrder(Long orderId)throws NotificationNotFoundException;
 
     // Mark a notification as sent
     void markNotificationAsSent(Long notificationId)throws NotificationNotFoundException;
+
+    // Mark many notifications as sent in set-based updates; returns how many were not sent before (unknown ids are ignored)
+    int markNotificationsAsSent(Collection<Long> notificationIds);
 }
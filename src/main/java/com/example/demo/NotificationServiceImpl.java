@@ -1,25 +1,32 @@
 package com.example.demo;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import jakarta.transaction.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 @Transactional
@@ -28,57 +35,84 @@ public class NotificationServiceImpl implements NotificationService {
     private static final Logger logger = LoggerFactory.getLogger(NotificationServiceImpl.class);
 
     private final NotificationRepository notificationRepository;
-    private final JavaMailSender mailSender;
-    private final ConsolidationServiceClient consolidationServiceClient;
-    private final ProductServiceClient productServiceClient;
+    private final NotificationEnricher notificationEnricher;
+    private final NotificationBatchWriter notificationBatchWriter;
+    private final OutboxStore outboxStore;
+    private final NotificationExporter notificationExporter;
+    private final NotificationChannels notificationChannels;
+    private final IdempotencyGuard idempotencyGuard;
+    private final NotificationMetrics notificationMetrics;
+    private final NotificationLookupCache lookupCache;
+    private final DeliverySchedule deliverySchedule;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public NotificationServiceImpl(
             NotificationRepository notificationRepository,
-            JavaMailSender mailSender,
-            ConsolidationServiceClient consolidationServiceClient,
-            ProductServiceClient productServiceClient) {
+            NotificationEnricher notificationEnricher,
+            NotificationBatchWriter notificationBatchWriter,
+            OutboxStore outboxStore,
+            NotificationExporter notificationExporter,
+            NotificationChannels notificationChannels,
+            IdempotencyGuard idempotencyGuard,
+            NotificationMetrics notificationMetrics,
+            NotificationLookupCache lookupCache,
+            DeliverySchedule deliverySchedule,
+            ApplicationEventPublisher eventPublisher) {
         this.notificationRepository = notificationRepository;
-        this.mailSender = mailSender;
-        this.consolidationServiceClient = consolidationServiceClient;
-        this.productServiceClient = productServiceClient;
+        this.notificationEnricher = notificationEnricher;
+        this.notificationBatchWriter = notificationBatchWriter;
+        this.outboxStore = outboxStore;
+        this.notificationExporter = notificationExporter;
+        this.notificationChannels = notificationChannels;
+        this.idempotencyGuard = idempotencyGuard;
+        this.notificationMetrics = notificationMetrics;
+        this.lookupCache = lookupCache;
+        this.deliverySchedule = deliverySchedule;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     @CircuitBreaker(name = "notificationService", fallbackMethod = "fallbackSendNotification")
     @Retry(name = "notificationService")
-    @RateLimiter(name = "notificationService")
-    @Bulkhead(name = "notificationService", type = Bulkhead.Type.THREADPOOL)
-    public Notification sendNotification(Notification notification) throws NotificationException, MessagingException {
-        logger.info("🚀 Starting notification process for customer ID: {}", notification.getCustomerId());
+    public Notification sendNotification(Notification notification) throws NotificationException {
+        notificationMetrics.enter();
+        try {
+            return send(notification);
+        } finally {
+            notificationMetrics.exit();
+        }
+    }
+
+    private Notification send(Notification notification) throws NotificationException {
+        logger.info(NotificationLogSampler.SAMPLED, "🚀 Starting notification process for customer ID: {}", notification.getCustomerId());
         if (notification.getProductId() == null) {
             logger.warn("⚠️ Product ID is null in notification, unable to fetch product details.");
         }
 
 
-        // Validate email
-        validateEmail(notification.getEmail());
-
-        // Fetch product details (optional fallback)
-        String productName = null;
-        try {
-            logger.debug("🔍 Fetching product with ID: {}", notification.getProductId());
-            Product product = productServiceClient.getProductDetails(notification.getProductId());
-            productName = product != null ? product.getProductName() : "Unknown Product";
-        } catch (Exception e) {
-            logger.warn("⚠️ Failed to fetch product details: {}", e.getMessage());
+        // Validate against the channel it goes out on (email address, phone number, ...)
+        validate(notification, notification.getType());
 
+        // A replay of an accepted request returns the original instead of sending again
+        String idempotencyKey = IdempotencyGuard.keyFor(notification, notification.getType(), NotificationEvent.ORDER_CONFIRMATION, null);
+        if (idempotencyKey != null && !idempotencyGuard.tryClaim(idempotencyKey)) {
+            notificationMetrics.count(notification.getType(), NotificationMetrics.Outcome.DUPLICATE);
+            logger.info(NotificationLogSampler.SAMPLED, "🔁 Duplicate notification request {} ignored", idempotencyKey);
+            return idempotencyGuard.originalOf(idempotencyKey)
+                    .flatMap(notificationRepository::findById)
+                    .orElse(notification);
         }
 
-        // Fetch order details (optional)
-        try {
-            Consolidation order = consolidationServiceClient.getConsolidationDetails(notification.getOrderId());
-            logger.info("✅ Order fetched for order ID: {}", order.getOrderReference());
-        } catch (Exception e) {
-            logger.warn("⚠️ Could not fetch order details for ID {}: {}", notification.getOrderId(), e.getMessage());
+        // Fetch product and order details in parallel (both optional)
+        NotificationEnricher.Enrichment enrichment = notificationEnricher.enrich(notification);
+        String productName = enrichment.productName();
+        if (enrichment.consolidation() != null) {
+            logger.info(NotificationLogSampler.SAMPLED, "✅ Order fetched for order ID: {}", enrichment.consolidation().getOrderReference());
         }
 
         // Save notification to DB
+        Timer.Sample dbSave = notificationMetrics.start();
         Notification savedNotification = notificationRepository.save(
                 Notification.builder()
                         .customerId(notification.getCustomerId())
@@ -87,74 +121,132 @@ public class NotificationServiceImpl implements NotificationService {
                         .orderReference(notification.getOrderReference())
                         .message(notification.getMessage())
                         .email(notification.getEmail())
+                        .phoneNumber(notification.getPhoneNumber())
                         .address(notification.getAddress())
+                        .locale(notification.getLocale())
                         .paymentMethod(notification.getPaymentMethod())
                         .price(notification.getPrice())
                         .quantity(notification.getQuantity())
                         .productName(productName)
                         .type(notification.getType())
+                        .sendAt(notification.getSendAt())
                         .sent(false)
-                        .sentAt(LocalDateTime.now())
                         .build()
         );
 
-        // Send Email
-        if (notification.getType() == NotificationType.EMAIL) {
-            logger.info("📧 Preparing to send email to {}", notification.getEmail());
+        if (idempotencyKey != null) {
+            idempotencyGuard.link(idempotencyKey, savedNotification.getId());
+        }
+
+        // Queue delivery in the outbox within the same transaction; the relay hands it to the channel after commit
+        logger.info(NotificationLogSampler.SAMPLED, "📤 Queueing {} notification for customer ID {}", savedNotification.getType(), savedNotification.getCustomerId());
+        outboxStore.enqueue(savedNotification, savedNotification.getType(), NotificationEvent.ORDER_CONFIRMATION, LocalDateTime.now());
+        lookupCache.evict(savedNotification);
+        notificationMetrics.stop(dbSave, NotificationMetrics.Stage.DB_SAVE);
+        eventPublisher.publishEvent(new OutboxRelay.OutboxWritten());
 
+        notificationMetrics.count(savedNotification.getType(), NotificationMetrics.Outcome.ACCEPTED);
+        return savedNotification;
+    }
+
+    @Override
+    public List<Notification> sendNotifications(List<Notification> notifications) {
+        return sendNotifications(notifications, NotificationEvent.ORDER_CONFIRMATION);
+    }
+
+    @Override
+    public List<Notification> sendNotifications(List<Notification> notifications, NotificationEvent event) {
+        logger.info("🚀 Starting batch notification process for {} notifications", notifications.size());
+
+        // Validate each entry on its own so one bad record doesn't sink the batch
+        List<Notification> candidates = new ArrayList<>(notifications.size());
+        Set<String> batchKeys = new HashSet<>();
+        Timer.Sample validation = notificationMetrics.start();
+        for (Notification notification : notifications) {
             try {
-            	String emailBody = String.format(
-            		    "Dear Customer,\n\n" +
-            		    "Your order has been placed successfully! 🧾\n\n" +
-            		    "Order Details:\n" +
-            		    "Order ID: %s\n" +
-            		    "Order Reference: %s\n" +
-            		    "Product: %s\n" +
-            		    "Quantity: %d\n" +
-            		    "Price: ₹%.2f\n" +
-            		    "Payment Method: %s\n" +
-            		    "Shipping Address: %s\n\n" +
-            		    "Thank you for shopping with us!\n",
-            		    notification.getOrderId(),
-            		    notification.getOrderReference(),
-            		    productName != null ? productName : "N/A",  // <-- use this instead
-            		    notification.getQuantity(),
-            		    notification.getPrice(),
-            		    notification.getPaymentMethod(),
-            		    notification.getAddress()
-            		);
-            		sendEmail(notification.getEmail(), "Order Confirmation", emailBody);
-                logger.info("✅ Email sent successfully to {}", notification.getEmail());
-
-                // Mark as sent
-                savedNotification = savedNotification.toBuilder().sent(true).build();
-                notificationRepository.save(savedNotification);
-            } catch (MessagingException ex) {
-                logger.error("❌ Failed to send email: {}", ex.getMessage(), ex);
-                throw ex;
+                notificationChannels.validate(notification);
+            } catch (NotificationException e) {
+                notificationMetrics.count(notification.getType(), NotificationMetrics.Outcome.INVALID);
+                logger.warn("⚠️ Skipping notification for customer ID {}: {}", notification.getCustomerId(), e.getMessage());
+                continue;
+            }
+            String key = IdempotencyGuard.keyFor(notification, notification.getType(), event, null);
+            if (key != null && !batchKeys.add(key)) {
+                notificationMetrics.count(notification.getType(), NotificationMetrics.Outcome.DUPLICATE);
+                continue;  // the same request twice in one poll
             }
+            notification.setIdempotencyKey(key);
+            candidates.add(notification);
+        }
+        notificationMetrics.stop(validation, NotificationMetrics.Stage.VALIDATION);
+
+        // Drop replays of requests that were already accepted
+        Set<String> seen = batchKeys.isEmpty() ? Set.of() : idempotencyGuard.existing(batchKeys);
+        List<Notification> valid = seen.isEmpty() ? candidates : candidates.stream()
+                .filter(n -> n.getIdempotencyKey() == null || !seen.contains(n.getIdempotencyKey()))
+                .toList();
+        if (!seen.isEmpty()) {
+            candidates.stream()
+                    .filter(n -> n.getIdempotencyKey() != null && seen.contains(n.getIdempotencyKey()))
+                    .forEach(n -> notificationMetrics.count(n.getType(), NotificationMetrics.Outcome.DUPLICATE));
+            logger.info("🔁 Ignored {} duplicate notification requests", seen.size());
         }
 
-        return savedNotification;
-    }
+        // Enrich the whole batch in parallel, fetching each distinct product once
+        List<NotificationEnricher.Enrichment> enrichments = notificationEnricher.enrichAll(valid);
+
+        // Save the batch in one JDBC batch insert
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> toSave = new ArrayList<>(valid.size());
+        for (int i = 0; i < valid.size(); i++) {
+            toSave.add(valid.get(i).toBuilder()
+                    .id(null)
+                    .productName(enrichments.get(i).productName())
+                    .sent(false)
+                    .sentAt(null)
+                    .build());
+        }
+        Timer.Sample dbSave = notificationMetrics.start();
+        List<Notification> saved = notificationBatchWriter.insertAll(toSave);
+        idempotencyGuard.recordAll(saved);
+
+        // Queue deliveries in the outbox in the same transaction; failures are isolated per message by the channel lanes
+        outboxStore.enqueueAll(saved, event, now);
+        lookupCache.evict(saved);
+        notificationMetrics.stop(dbSave, NotificationMetrics.Stage.DB_SAVE);
+        saved.forEach(n -> notificationMetrics.count(n.getType(), NotificationMetrics.Outcome.ACCEPTED));
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(new OutboxRelay.OutboxWritten());
+        }
 
-    private void sendEmail(String to, String subject, String text) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true);
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(text, true);
-        mailSender.send(message);
+        logger.info("✅ Batch processed: {} received, {} saved and queued", notifications.size(), saved.size());
+        return saved;
     }
 
-    private void validateEmail(String email) throws NotificationException {
-        if (email == null || email.trim().isEmpty()) {
-            throw new NotificationException("❌ Email address is required for notification.");
+    private void validate(Notification notification, NotificationType type) throws NotificationException {
+        Timer.Sample validation = notificationMetrics.start();
+        try {
+            notificationChannels.validate(notification, type);
+        } catch (NotificationException e) {
+            notificationMetrics.count(type, NotificationMetrics.Outcome.INVALID);
+            throw e;
+        } finally {
+            notificationMetrics.stop(validation, NotificationMetrics.Stage.VALIDATION);
         }
     }
 
     public Notification fallbackSendNotification(Notification notification, Throwable t) {
         logger.error("🔁 Fallback: Failed to send notification for customer ID {}. Reason: {}", notification.getCustomerId(), t.getMessage());
+        notificationMetrics.count(notification.getType(), NotificationMetrics.Outcome.FALLBACK);
+
+        // Keep the notification in the outbox so the relay retries it, unless the request itself was invalid
+        if (!(t instanceof NotificationException) && notification.getType() != null) {
+            try {
+                return outboxStore.saveForRetry(notification, NotificationEvent.ORDER_CONFIRMATION);
+            } catch (Exception e) {
+                logger.error("❌ Could not queue notification for retry: {}", e.getMessage());
+            }
+        }
 
         return Notification.builder()
                 .customerId(notification.getCustomerId())
@@ -169,58 +261,194 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
-    public List<Notification> getAllNotifications() {
-        return notificationRepository.findAll();
+    public NotificationPage<NotificationSummary> getAllNotifications(Long cursor, int limit) {
+        List<NotificationSummary> items = notificationRepository.findByIdLessThanOrderByIdDesc(
+                cursor != null ? cursor : Long.MAX_VALUE, PageRequest.ofSize(limit));
+        return NotificationPage.of(items, limit, NotificationSummary::id);
+    }
+
+    @Override
+    public NotificationPage<NotificationSummary> getNotificationsByCustomer(Long customerId, Long cursor, int limit) {
+        return lookupCache.customerPage(customerId, cursor, limit, () -> {
+            List<NotificationSummary> items = notificationRepository.findByCustomerIdAndIdLessThanOrderByIdDesc(
+                    customerId, cursor != null ? cursor : Long.MAX_VALUE, PageRequest.ofSize(limit));
+            return NotificationPage.of(items, limit, NotificationSummary::id);
+        });
     }
 
     @Override
-    public List<Notification> getNotificationsByCustomer(Long customerId) {
-        return notificationRepository.findByCustomerId(customerId);
+    public void exportNotifications(Long customerId, OutputStream out) {
+        notificationExporter.export(customerId, out);
     }
 
     @Override
     public Optional<Notification> getNotificationsByOrder(Long orderId) {
-        return notificationRepository.findByOrderId(orderId);
+        return lookupCache.order(orderId, () -> notificationRepository.findFirstByOrderIdOrderByIdAsc(orderId));
     }
 
     @Override
     public void markNotificationAsSent(Long notificationId) throws NotificationNotFoundException {
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new NotificationNotFoundException("Notification not found for ID: " + notificationId));
+        // Nothing changed: either it was already sent (fine, marking is idempotent) or it doesn't exist
+        if (markNotificationsAsSent(List.of(notificationId)) == 0 && !notificationRepository.existsById(notificationId)) {
+            throw new NotificationNotFoundException("Notification not found for ID: " + notificationId);
+        }
+    }
 
-        Notification updated = notification.toBuilder().sent(true).build();
-        notificationRepository.save(updated);
+    @Override
+    public int markNotificationsAsSent(Collection<Long> notificationIds) {
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(notificationIds));
+        int updated = 0;
+        // Bounded IN lists
+        for (int from = 0; from < ids.size(); from += NotificationConstants.MAX_PAGE_SIZE) {
+            updated += notificationRepository.markSent(
+                    ids.subList(from, Math.min(from + NotificationConstants.MAX_PAGE_SIZE, ids.size())), LocalDateTime.now());
+        }
+        if (updated > 0 && lookupCache.isEnabled()) {
+            lookupCache.evictRefs(notificationRepository.findRefsByIdIn(ids));
+        }
+        return updated;
     }
 
     @Override
     @CircuitBreaker(name = "notificationService", fallbackMethod = "fallbackSendOrderNotification")
     @Retry(name = "notificationService")
-    @RateLimiter(name = "notificationService")
-    @Bulkhead(name = "notificationService", type = Bulkhead.Type.THREADPOOL)
-    public Notification sendOrderNotification(Long orderId, NotificationType type, String message)
-            throws NotificationNotFoundException, MessagingException, NotificationException {
+    public Notification sendOrderNotification(Long orderId, NotificationType type, String message, String idempotencyKey)
+            throws NotificationNotFoundException, NotificationException {
 
-        logger.info("📦 Sending update for order ID: {}", orderId);
+        logger.info(NotificationLogSampler.SAMPLED, "📦 Sending update for order ID: {}", orderId);
 
-        Notification notification = notificationRepository.findByOrderId(orderId)
+        Notification notification = notificationRepository.findFirstByOrderIdOrderByIdAsc(orderId)
                 .orElseThrow(() -> new NotificationNotFoundException("Notification not found for Order ID: " + orderId));
 
-        if (type == NotificationType.EMAIL) {
-            validateEmail(notification.getEmail());
-            sendEmail(notification.getEmail(), "Order Update", message);
+        validate(notification, type);
+
+        // Without a client key, the same update text for the same order and channel counts as a replay
+        notification.setIdempotencyKey(idempotencyKey);
+        String key = IdempotencyGuard.keyFor(notification, type, NotificationEvent.ORDER_UPDATE, message);
+        if (key != null && !idempotencyGuard.tryClaim(key)) {
+            notificationMetrics.count(type, NotificationMetrics.Outcome.DUPLICATE);
+            logger.info(NotificationLogSampler.SAMPLED, "🔁 Duplicate order update {} ignored", key);
+            return notification;
         }
 
+        // Targeted UPDATE of the changed columns instead of saving the whole (possibly stale) row back
+        notificationRepository.rearm(notification.getId(), message);
         Notification updatedNotification = notification.toBuilder()
                 .message(message)
-                .sent(type == NotificationType.EMAIL)
-                .sentAt(LocalDateTime.now())
+                .sent(false)
+                .sentAt(null)
                 .build();
 
-        return notificationRepository.save(updatedNotification);
+        if (key != null) {
+            idempotencyGuard.link(key, updatedNotification.getId());
+        }
+        outboxStore.enqueue(updatedNotification, type, NotificationEvent.ORDER_UPDATE, LocalDateTime.now());
+        lookupCache.evict(updatedNotification);
+        eventPublisher.publishEvent(new OutboxRelay.OutboxWritten());
+        notificationMetrics.count(type, NotificationMetrics.Outcome.ACCEPTED);
+
+        return updatedNotification;
+    }
+
+    @Override
+    public List<Notification> sendOrderStatusNotifications(List<OrderStatusChange> changes) {
+        if (changes.isEmpty()) {
+            return List.of();
+        }
+        // The order's first notification carries the customer's channel and address
+        Map<Long, Notification> byOrder = new HashMap<>();
+        for (Notification n : notificationRepository.findByOrderIdIn(changes.stream().map(OrderStatusChange::orderId).toList())) {
+            byOrder.merge(n.getOrderId(), n, (a, b) -> a.getId() <= b.getId() ? a : b);
+        }
+
+        List<Notification> updated = new ArrayList<>(byOrder.size());
+        for (OrderStatusChange change : changes) {
+            Notification notification = byOrder.get(change.orderId());
+            if (notification == null || notification.getType() == null) {
+                logger.debug("No notification for order ID {}, status {} not sent", change.orderId(), change.status());
+                continue;
+            }
+            // The text comes from the order_status templates; the message is just the status
+            String message = change.status().replace('_', ' ').toLowerCase(Locale.ROOT);
+            // Keyed on the transition at its stream position: a replayed batch is dropped, a later A -> B -> A is not
+            String key = IdempotencyGuard.keyFor(notification, notification.getType(), NotificationEvent.ORDER_STATUS,
+                    change.previousStatus() + ">" + change.status() + "@" + change.position());
+            if (key != null && !idempotencyGuard.tryClaim(key)) {
+                notificationMetrics.count(notification.getType(), NotificationMetrics.Outcome.DUPLICATE);
+                continue;
+            }
+            notificationRepository.rearm(notification.getId(), message);
+            Notification rearmed = notification.toBuilder()
+                    .message(message)
+                    .sent(false)
+                    .sentAt(null)
+                    .build();
+            if (key != null) {
+                idempotencyGuard.link(key, rearmed.getId());
+            }
+            updated.add(rearmed);
+        }
+
+        if (!updated.isEmpty()) {
+            outboxStore.enqueueAll(updated, NotificationEvent.ORDER_STATUS, LocalDateTime.now());
+            lookupCache.evict(updated);
+            updated.forEach(n -> notificationMetrics.count(n.getType(), NotificationMetrics.Outcome.ACCEPTED));
+            eventPublisher.publishEvent(new OutboxRelay.OutboxWritten());
+        }
+        logger.info("📦 Order status batch: {} changes, {} notifications queued", changes.size(), updated.size());
+        return updated;
+    }
+
+    @Override
+    public Notification scheduleDeliveryReminder(Long orderId, NotificationType type)
+            throws NotificationNotFoundException, NotificationException {
+        Notification notification = notificationRepository.findFirstByOrderIdOrderByIdAsc(orderId)
+                .orElseThrow(() -> new NotificationNotFoundException("Notification not found for Order ID: " + orderId));
+        validate(notification, type);
+
+        Consolidation consolidation = notificationEnricher.consolidation(orderId);
+        if (consolidation == null || consolidation.getDeliveryDate() == null) {
+            throw new NotificationException("No delivery date known for Order ID: " + orderId);
+        }
+        LocalDate deliveryDate = consolidation.getDeliveryDate();
+        LocalDateTime remindAt = deliverySchedule.reminderAt(deliveryDate);
+        if (remindAt.isBefore(LocalDateTime.now())) {
+            throw new NotificationException("Delivery date " + deliveryDate + " for Order ID " + orderId + " has passed");
+        }
+
+        // One reminder per order, channel and delivery date; a rescheduled delivery gets a new one
+        String key = IdempotencyGuard.keyFor(notification, type, NotificationEvent.DELIVERY_REMINDER, deliveryDate.toString());
+        if (key != null && !idempotencyGuard.tryClaim(key)) {
+            notificationMetrics.count(type, NotificationMetrics.Outcome.DUPLICATE);
+            logger.info(NotificationLogSampler.SAMPLED, "🔁 Delivery reminder {} already scheduled", key);
+            return idempotencyGuard.originalOf(key)
+                    .flatMap(notificationRepository::findById)
+                    .orElse(notification);
+        }
+
+        // Its own row, so the order's existing notification keeps its state; the outbox holds it until remindAt.
+        // The message holds the ISO delivery date, which the delivery_reminder templates render as ${deliveryDate}.
+        Notification reminder = notificationRepository.save(notification.toBuilder()
+                .id(null)
+                .type(type)
+                .message(deliveryDate.toString())
+                .sendAt(remindAt)
+                .sent(false)
+                .sentAt(null)
+                .build());
+        if (key != null) {
+            idempotencyGuard.link(key, reminder.getId());
+        }
+        outboxStore.enqueue(reminder, type, NotificationEvent.DELIVERY_REMINDER, LocalDateTime.now());
+        lookupCache.evict(reminder);
+        notificationMetrics.count(type, NotificationMetrics.Outcome.ACCEPTED);
+        logger.info(NotificationLogSampler.SAMPLED, "⏰ Delivery reminder for order ID {} scheduled at {}", orderId, remindAt);
+        return reminder;
     }
 
-    public Notification fallbackSendOrderNotification(Long orderId, NotificationType type, String message, Throwable t) {
+    public Notification fallbackSendOrderNotification(Long orderId, NotificationType type, String message, String idempotencyKey, Throwable t) {
         logger.error("🔁 Fallback: Could not send order update for Order ID {} due to {}", orderId, t.getMessage());
+        notificationMetrics.count(type, NotificationMetrics.Outcome.FALLBACK);
 
         return Notification.builder()
                 .orderId(orderId)
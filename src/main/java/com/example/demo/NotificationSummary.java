@@ -0,0 +1,15 @@
+package com.example.demo;
+
+import java.time.LocalDateTime;
+
+// Lightweight row for list endpoints; selects only these columns instead of the whole entity
+public record NotificationSummary(
+        Long id,
+        Long customerId,
+        Long orderId,
+        String orderReference,
+        String productName,
+        NotificationType type,
+        boolean sent,
+        LocalDateTime sentAt) {
+}
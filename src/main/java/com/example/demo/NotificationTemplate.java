@@ -0,0 +1,117 @@
+package com.example.demo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.web.util.HtmlUtils;
+
+// A template parsed once into literal and variable segments. Variable names are bound to
+// their resolvers at compile time, so rendering is just a run of appends into the caller's buffer.
+public final class NotificationTemplate {
+
+    private final Segment[] subject;
+    private final Segment[] body;
+    private final boolean html;
+
+    private NotificationTemplate(Segment[] subject, Segment[] body, boolean html) {
+        this.subject = subject;
+        this.body = body;
+        this.html = html;
+    }
+
+    public boolean isHtml() {
+        return html;
+    }
+
+    public void renderSubject(Notification notification, StringBuilder out) {
+        render(subject, notification, out, false);
+    }
+
+    public void renderBody(Notification notification, StringBuilder out) {
+        render(body, notification, out, html);
+    }
+
+    private static void render(Segment[] segments, Notification notification, StringBuilder out, boolean escape) {
+        for (Segment segment : segments) {
+            if (segment.literal != null) {
+                out.append(segment.literal);
+                continue;
+            }
+            Object value = segment.resolver.apply(notification);
+            String text = format(value);
+            out.append(escape ? HtmlUtils.htmlEscape(text) : text);
+        }
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "N/A";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.setScale(2, RoundingMode.HALF_UP).toPlainString();
+        }
+        return value.toString();
+    }
+
+    // Source format: optional first line "Subject: ...", then the body. Placeholders are ${name}.
+    static NotificationTemplate compile(String source, boolean html, Map<String, Function<Notification, Object>> variables) {
+        String subjectSource = "";
+        String bodySource = source;
+        if (source.startsWith("Subject:")) {
+            int newline = source.indexOf('\n');
+            subjectSource = (newline < 0 ? source.substring(8) : source.substring(8, newline)).trim();
+            bodySource = newline < 0 ? "" : source.substring(newline + 1).stripLeading();
+        }
+        return new NotificationTemplate(parse(subjectSource, variables), parse(bodySource, variables), html);
+    }
+
+    private static Segment[] parse(String source, Map<String, Function<Notification, Object>> variables) {
+        List<Segment> segments = new ArrayList<>();
+        int pos = 0;
+        while (pos < source.length()) {
+            int start = source.indexOf("${", pos);
+            if (start < 0) {
+                segments.add(Segment.literal(source.substring(pos)));
+                break;
+            }
+            int end = source.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + start);
+            }
+            if (start > pos) {
+                segments.add(Segment.literal(source.substring(pos, start)));
+            }
+            String name = source.substring(start + 2, end).trim();
+            Function<Notification, Object> resolver = variables.get(name);
+            if (resolver == null) {
+                throw new IllegalArgumentException("Unknown template variable: " + name);
+            }
+            segments.add(Segment.variable(resolver));
+            pos = end + 1;
+        }
+        return segments.toArray(new Segment[0]);
+    }
+
+    private static final class Segment {
+
+        private final String literal;
+        private final Function<Notification, Object> resolver;
+
+        private Segment(String literal, Function<Notification, Object> resolver) {
+            this.literal = literal;
+            this.resolver = resolver;
+        }
+
+        static Segment literal(String text) {
+            return new Segment(text, null);
+        }
+
+        static Segment variable(Function<Notification, Object> resolver) {
+            return new Segment(null, resolver);
+        }
+    }
+}
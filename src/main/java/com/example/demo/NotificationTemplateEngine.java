@@ -0,0 +1,168 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Looks up templates by event, notification type and locale, e.g.
+// classpath:templates/notification/order_confirmation/email_hi_IN.txt, falling back to
+// email_hi.txt and then email.txt. ".html" sources are sent as HTML, ".txt" as plain text.
+// Each template file is compiled once and shared by every locale that resolves to it; the (event, type, locale)
+// lookups in front of it sit in a bounded cache, since locales come from the request. Adding a notification kind
+// only needs a new file.
+@Component
+public class NotificationTemplateEngine {
+
+    // Variables available to every template
+    private static final Map<String, Function<Notification, Object>> VARIABLES = variables();
+
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    // Keyed by template file, so bounded by what is on disk
+    private final Map<String, NotificationTemplate> compiled = new ConcurrentHashMap<>();
+    private final Cache<TemplateKey, NotificationTemplate> lookups;
+
+    @Autowired
+    public NotificationTemplateEngine(
+            ResourceLoader resourceLoader,
+            @Value("${notification.templates.location:classpath:templates/notification/}") String location,
+            @Value("${notification.templates.cache-size:1000}") long cacheSize) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        this.lookups = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    public record RenderedMessage(String subject, String body, boolean html) {
+    }
+
+    private record TemplateKey(NotificationEvent event, NotificationType type, String locale) {
+    }
+
+    public RenderedMessage render(NotificationEvent event, NotificationType type, String locale, Notification notification) {
+        NotificationTemplate template = template(event, type, locale);
+        StringBuilder buffer = BUFFER.get();
+        try {
+            buffer.setLength(0);
+            template.renderSubject(notification, buffer);
+            String subject = buffer.toString();
+            buffer.setLength(0);
+            template.renderBody(notification, buffer);
+            return new RenderedMessage(subject, buffer.toString(), template.isHtml());
+        } finally {
+            // Don't let one huge message pin a large buffer to the thread
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    NotificationTemplate template(NotificationEvent event, NotificationType type, String locale) {
+        Locale parsed = parse(locale);
+        return lookups.get(new TemplateKey(event, type, parsed.toLanguageTag()), k -> load(event, type, parsed));
+    }
+
+    private NotificationTemplate load(NotificationEvent event, NotificationType type, Locale locale) {
+        String base = location + event.name().toLowerCase(Locale.ROOT) + "/" + type.name().toLowerCase(Locale.ROOT);
+        for (String candidate : candidates(base, locale)) {
+            for (String extension : List.of(".html", ".txt")) {
+                String path = candidate + extension;
+                Resource resource = resourceLoader.getResource(path);
+                if (resource.exists()) {
+                    return compiled.computeIfAbsent(path,
+                            p -> NotificationTemplate.compile(read(resource), extension.equals(".html"), VARIABLES));
+                }
+            }
+        }
+        throw new IllegalStateException("No template found for " + event + "/" + type + " at " + base);
+    }
+
+    // Only language and country pick a template, so "hi-IN", "hi_in" and "hi-IN-u-nu-deva" share one lookup
+    private static Locale parse(String locale) {
+        if (locale == null || locale.isBlank()) {
+            return Locale.ROOT;
+        }
+        Locale parsed = Locale.forLanguageTag(locale.replace('_', '-'));
+        return Locale.of(parsed.getLanguage(), parsed.getCountry());
+    }
+
+    // Most specific locale first: email_hi_IN, email_hi, email
+    private static List<String> candidates(String base, Locale locale) {
+        List<String> candidates = new ArrayList<>(3);
+        if (!locale.getCountry().isEmpty() && !locale.getLanguage().isEmpty()) {
+            candidates.add(base + "_" + locale.getLanguage() + "_" + locale.getCountry());
+        }
+        if (!locale.getLanguage().isEmpty()) {
+            candidates.add(base + "_" + locale.getLanguage());
+        }
+        candidates.add(base);
+        return candidates;
+    }
+
+    private static String read(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read template " + resource.getDescription(), e);
+        }
+    }
+
+    private static String digestItems(Notification notification) {
+        List<Notification> entries = notification.getDigestEntries() != null ? notification.getDigestEntries() : List.of(notification);
+        StringBuilder items = new StringBuilder();
+        for (Notification entry : entries) {
+            if (!items.isEmpty()) {
+                items.append('\n');
+            }
+            items.append("- ").append(entry.getProductName() != null ? entry.getProductName() : "Item")
+                    .append(" x").append(entry.getQuantity());
+            if (entry.getMessage() != null) {
+                items.append(": ").append(entry.getMessage());
+            }
+        }
+        return items.toString();
+    }
+
+    private static Map<String, Function<Notification, Object>> variables() {
+        Map<String, Function<Notification, Object>> variables = new HashMap<>();
+        variables.put("customerId", Notification::getCustomerId);
+        variables.put("orderId", Notification::getOrderId);
+        variables.put("orderReference", Notification::getOrderReference);
+        variables.put("orderType", Notification::getOrderType);
+        variables.put("productId", Notification::getProductId);
+        variables.put("productName", Notification::getProductName);
+        variables.put("description", Notification::getDescription);
+        variables.put("quantity", Notification::getQuantity);
+        variables.put("price", Notification::getPrice);
+        variables.put("paymentMethod", Notification::getPaymentMethod);
+        variables.put("address", Notification::getAddress);
+        variables.put("email", Notification::getEmail);
+        variables.put("message", Notification::getMessage);
+        // Digest only
+        variables.put("optimisedItems", n -> n.getConsolidation() != null ? n.getConsolidation().getOptimisedItems() : null);
+        variables.put("optimisedTotalAmount", n -> n.getConsolidation() != null ? n.getConsolidation().getOptimisedTotalAmount() : null);
+        variables.put("deliveryDate", n -> n.getConsolidation() != null ? n.getConsolidation().getDeliveryDate() : null);
+        variables.put("itemCount", n -> n.getDigestEntries() != null ? n.getDigestEntries().size() : 1);
+        variables.put("items", NotificationTemplateEngine::digestItems);
+        return Map.copyOf(variables);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Turns the order-event stream into order-update notifications, one batch per poll. Repeats are dropped
+// before they reach the DB or the mailer: within a batch only each order's latest status counts, and
+// statuses equal to the last one seen for the order (OrderStatusTracker) are no-ops.
+@Service
+public class OrderEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventConsumer.class);
+
+    private final NotificationService notificationService;
+    private final OrderStatusTracker statusTracker;
+    private final Counter received;
+    private final Counter invalid;
+    private final Counter unchanged;
+    private final Counter changed;
+
+    @Autowired
+    public OrderEventConsumer(NotificationService notificationService, OrderStatusTracker statusTracker, MeterRegistry meterRegistry) {
+        this.notificationService = notificationService;
+        this.statusTracker = statusTracker;
+        this.received = meterRegistry.counter("notification.order-events", "outcome", "received");
+        this.invalid = meterRegistry.counter("notification.order-events", "outcome", "invalid");
+        this.unchanged = meterRegistry.counter("notification.order-events", "outcome", "unchanged");
+        this.changed = meterRegistry.counter("notification.order-events", "outcome", "changed");
+    }
+
+    @KafkaListener(
+        topics = NotificationConstants.ORDER_EVENTS_TOPIC,
+        groupId = "notification-service-orders",
+        containerFactory = "orderKafkaListenerContainerFactory",
+        autoStartup = "${notification.order-events.enabled:true}"
+    )
+    public void listen(List<ConsumerRecord<String, OrderStatusEvent>> records) {
+        received.increment(records.size());
+
+        // Partition order is event order for an order (keyed by order id); the last status in the batch wins,
+        // so A -> B -> A collapses to A and is then dropped as unchanged
+        Map<Long, OrderStatusChange> latest = new LinkedHashMap<>();
+        int valid = 0;
+        for (ConsumerRecord<String, OrderStatusEvent> consumerRecord : records) {
+            OrderStatusEvent event = consumerRecord.value();
+            String status = event != null ? OrderStatusTracker.normalize(event.status()) : null;
+            if (event == null || event.orderId() == null || status == null) {
+                invalid.increment();
+                logger.warn("❗ Skipping order event without order ID or status at {}-{}@{}",
+                        consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset());
+                continue;
+            }
+            valid++;
+            latest.remove(event.orderId());
+            latest.put(event.orderId(), new OrderStatusChange(event.orderId(), null, status,
+                    consumerRecord.topic() + "-" + consumerRecord.partition() + "@" + consumerRecord.offset()));
+        }
+
+        List<OrderStatusChange> transitions = statusTracker.changed(latest.values());
+        // Repeats within the batch and statuses equal to the last seen
+        unchanged.increment(valid - transitions.size());
+        if (transitions.isEmpty()) {
+            return;
+        }
+        changed.increment(transitions.size());
+
+        // Queue first, record after: a failure in between replays the batch, and the service's idempotency
+        // keys drop the notifications already queued
+        notificationService.sendOrderStatusNotifications(transitions);
+        statusTracker.record(transitions);
+    }
+}
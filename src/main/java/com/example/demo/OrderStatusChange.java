@@ -0,0 +1,10 @@
+package com.example.demo;
+
+// A status change for one order seen on the order-event stream. position is where the event sits in the
+// stream (topic-partition@offset): a replayed event keeps it, a later real change gets a new one.
+public record OrderStatusChange(Long orderId, String previousStatus, String status, String position) {
+
+    public OrderStatusChange withPreviousStatus(String previous) {
+        return new OrderStatusChange(orderId, previous, status, position);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+
+// The part of an order event this service needs. Order producers name the fields differently
+// (id / orderId, status / orderStatus), so the aliases accept both; everything else is ignored.
+public record OrderStatusEvent(
+        @JsonAlias("id") Long orderId,
+        Long customerId,
+        String orderReference,
+        @JsonAlias("orderStatus") String status) {
+}
@@ -0,0 +1,32 @@
+package com.example.demo;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Last order status seen on the order-event stream, one narrow row per order; written by OrderStatusTracker.
+@Entity
+@Table(name = "order_status_state")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusState {
+
+    @Id
+    private Long orderId;
+
+    @Column(length = OrderStatusTracker.MAX_STATUS_LENGTH, nullable = false)
+    private String status;
+
+    private LocalDateTime updatedAt;
+}
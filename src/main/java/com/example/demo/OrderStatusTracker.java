@@ -0,0 +1,116 @@
+package com.example.demo;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Last seen status per order, so only real transitions turn into notifications. A bounded in-memory map
+// (statuses interned, so an entry is little more than the key) answers most events without a query;
+// order_status_state is the authority after a restart or eviction and is read once per batch for the misses.
+@Component
+public class OrderStatusTracker {
+
+    static final int MAX_STATUS_LENGTH = 32;
+
+    private static final String FIND_SQL =
+            "SELECT order_id, status FROM order_status_state WHERE order_id IN (:ids)";
+    private static final String UPSERT_SQL =
+            "INSERT INTO order_status_state (order_id, status, updated_at) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE status = VALUES(status), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final Cache<Long, String> lastSeen;
+
+    @Autowired
+    public OrderStatusTracker(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${notification.order-events.state-cache-size:200000}") long cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.lastSeen = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lastSeen, "orderStatus");
+    }
+
+    // Upper-cased and trimmed, so "shipped" and "SHIPPED " are the same status
+    static String normalize(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        String normalized = status.trim().toUpperCase(Locale.ROOT);
+        return (normalized.length() <= MAX_STATUS_LENGTH ? normalized : normalized.substring(0, MAX_STATUS_LENGTH)).intern();
+    }
+
+    // The latest events (one per order) whose status differs from the last one recorded for the order, with that
+    // previous status filled in (null for an order not seen before, which counts as changed)
+    public List<OrderStatusChange> changed(Collection<OrderStatusChange> latest) {
+        List<OrderStatusChange> changed = new ArrayList<>();
+        List<OrderStatusChange> misses = new ArrayList<>();
+        for (OrderStatusChange change : latest) {
+            String last = lastSeen.getIfPresent(change.orderId());
+            if (last == null) {
+                misses.add(change);
+            } else if (!last.equals(change.status())) {
+                changed.add(change.withPreviousStatus(last));
+            }
+        }
+        if (misses.isEmpty()) {
+            return changed;
+        }
+
+        List<Long> ids = misses.stream().map(OrderStatusChange::orderId).toList();
+        Map<Long, String> stored = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += NotificationConstants.MAX_PAGE_SIZE) {
+            namedJdbcTemplate.query(FIND_SQL,
+                    Map.of("ids", ids.subList(from, Math.min(from + NotificationConstants.MAX_PAGE_SIZE, ids.size()))),
+                    rs -> {
+                        stored.put(rs.getLong(1), rs.getString(2));
+                    });
+        }
+        for (OrderStatusChange change : misses) {
+            String last = stored.get(change.orderId());
+            if (last != null) {
+                lastSeen.put(change.orderId(), last.intern());
+            }
+            if (!change.status().equals(last)) {
+                changed.add(change.withPreviousStatus(last));
+            }
+        }
+        return changed;
+    }
+
+    // Record statuses once their notifications are queued; one batched upsert
+    public void record(List<OrderStatusChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, changes, changes.size(), (ps, change) -> {
+            ps.setLong(1, change.orderId());
+            ps.setString(2, change.status());
+            ps.setTimestamp(3, now);
+        });
+        changes.forEach(change -> lastSeen.put(change.orderId(), change.status()));
+    }
+}
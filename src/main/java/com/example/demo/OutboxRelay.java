@@ -0,0 +1,142 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Moves committed outbox rows to their channel's dispatch lane. Polls as a safety net and is also
+// woken right after a request commits, and by the timing wheel when deferred rows (send-at, quiet hours,
+// retries) come due, so delivery latency doesn't depend on the poll interval.
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxStore outboxStore;
+    private final NotificationRepository notificationRepository;
+    private final ChannelDispatcher channelDispatcher;
+    private final Executor executor;
+    private final int batchSize;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    @Autowired
+    public OutboxRelay(
+            OutboxStore outboxStore,
+            NotificationRepository notificationRepository,
+            ChannelDispatcher channelDispatcher,
+            @Qualifier("notificationIoExecutor") Executor executor,
+            @Value("${notification.outbox.batch-size:200}") int batchSize) {
+        this.outboxStore = outboxStore;
+        this.notificationRepository = notificationRepository;
+        this.channelDispatcher = channelDispatcher;
+        this.executor = executor;
+        this.batchSize = batchSize;
+    }
+
+    // Published by the request path once its outbox rows are written
+    public record OutboxWritten() {
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOutboxWritten(OutboxWritten event) {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // The scheduled poll will pick the rows up
+        }
+    }
+
+    @EventListener
+    public void onOutboxDue(DeliveryTimingWheel.OutboxDue event) {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // The next tick or poll will pick the rows up
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:30000}")
+    public void poll() {
+        drain();
+    }
+
+    // Claim and hand off batches until the outbox is empty or the dispatch lanes are full
+    public void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int claimed;
+            do {
+                int limit = Math.min(batchSize, channelDispatcher.remainingCapacity());
+                if (limit <= 0) {
+                    return;
+                }
+                List<NotificationOutbox> rows = outboxStore.claim(limit);
+                claimed = rows.size();
+                if (claimed > 0) {
+                    dispatch(rows);
+                }
+            } while (claimed == batchSize);
+        } catch (Exception e) {
+            logger.error("❌ Outbox relay failed: {}", e.getMessage(), e);
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private void dispatch(List<NotificationOutbox> rows) {
+        Map<Long, Notification> notifications = notificationRepository
+                .findAllById(rows.stream().map(NotificationOutbox::getNotificationId).toList())
+                .stream()
+                .collect(Collectors.toMap(Notification::getId, Function.identity()));
+
+        // Rows sharing a coalesce key go out as one digest, led by the oldest
+        Map<String, List<NotificationChannel.Delivery>> digests = new LinkedHashMap<>();
+        List<NotificationChannel.Delivery> deliveries = new ArrayList<>(rows.size());
+        for (NotificationOutbox row : rows) {
+            Notification notification = notifications.get(row.getNotificationId());
+            if (notification == null) {
+                outboxStore.fail(row, "Notification missing");
+                continue;
+            }
+            NotificationChannel.Delivery delivery = new NotificationChannel.Delivery(row, notification);
+            if (row.getCoalesceKey() == null) {
+                deliveries.add(delivery);
+            } else {
+                digests.computeIfAbsent(row.getCoalesceKey(), k -> new ArrayList<>()).add(delivery);
+            }
+        }
+        for (List<NotificationChannel.Delivery> group : digests.values()) {
+            group.sort(Comparator.comparing(d -> d.outbox().getId()));
+            NotificationChannel.Delivery lead = group.get(0);
+            deliveries.add(group.size() == 1 ? lead
+                    : new NotificationChannel.Delivery(lead.outbox(), lead.notification(), List.copyOf(group.subList(1, group.size()))));
+        }
+
+        List<NotificationOutbox> rejected = new ArrayList<>();
+        for (NotificationChannel.Delivery delivery : deliveries) {
+            if (!channelDispatcher.offer(delivery)) {
+                delivery.all().forEach(d -> rejected.add(d.outbox()));
+            }
+        }
+        outboxStore.release(rejected, channelDispatcher.busyRetryDelay());
+    }
+}
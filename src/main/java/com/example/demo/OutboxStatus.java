@@ -0,0 +1,6 @@
+package com.example.demo;
+
+public enum OutboxStatus {
+
+	PENDING, IN_FLIGHT, FAILED
+}
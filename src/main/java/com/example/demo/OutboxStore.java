@@ -0,0 +1,182 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jakarta.transaction.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Short transactions around the outbox table, shared by the relay (claim) and the dispatcher (complete/retry)
+@Component
+public class OutboxStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxStore.class);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationBatchWriter notificationBatchWriter;
+    private final NotificationDigestPolicy digestPolicy;
+    private final NotificationPriorities priorities;
+    private final DeliverySchedule deliverySchedule;
+    private final DeliveryTimingWheel timingWheel;
+    private final Duration lease;
+    private final Duration retryBackoff;
+    private final int maxAttempts;
+
+    @Autowired
+    public OutboxStore(
+            NotificationOutboxRepository outboxRepository,
+            NotificationRepository notificationRepository,
+            NotificationBatchWriter notificationBatchWriter,
+            NotificationDigestPolicy digestPolicy,
+            NotificationPriorities priorities,
+            DeliverySchedule deliverySchedule,
+            DeliveryTimingWheel timingWheel,
+            @Value("${notification.outbox.lease:5m}") Duration lease,
+            @Value("${notification.outbox.retry-backoff:30s}") Duration retryBackoff,
+            @Value("${notification.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.notificationRepository = notificationRepository;
+        this.notificationBatchWriter = notificationBatchWriter;
+        this.digestPolicy = digestPolicy;
+        this.priorities = priorities;
+        this.deliverySchedule = deliverySchedule;
+        this.timingWheel = timingWheel;
+        this.lease = lease;
+        this.retryBackoff = retryBackoff;
+        this.maxAttempts = maxAttempts;
+    }
+
+    // Queue a single notification for delivery, no earlier than availableAt (later if it asks for a send-at time
+    // or falls in quiet hours); joins the caller's transaction
+    @Transactional
+    public NotificationOutbox enqueue(Notification notification, NotificationType channel, NotificationEvent event,
+            LocalDateTime availableAt) {
+        String coalesceKey = digestPolicy.coalesceKey(notification, channel, event);
+        LocalDateTime dueAt = digestPolicy.availableAt(coalesceKey, deliverySchedule.dueAt(notification, event, availableAt));
+        NotificationOutbox row = outboxRepository.save(NotificationOutbox.builder()
+                .notificationId(notification.getId())
+                .channel(channel)
+                .event(event)
+                .coalesceKey(coalesceKey)
+                .status(OutboxStatus.PENDING)
+                .availableAt(dueAt)
+                .createdAt(LocalDateTime.now())
+                .build());
+        timingWheel.schedule(dueAt);
+        return row;
+    }
+
+    // Queue already-inserted notifications in one JDBC batch, each on its own type's channel
+    @Transactional
+    public void enqueueAll(List<Notification> notifications, NotificationEvent event, LocalDateTime availableAt) {
+        notificationBatchWriter.insertOutbox(notifications, event, n -> deliverySchedule.dueAt(n, event, availableAt), digestPolicy)
+                .forEach(timingWheel::schedule);
+    }
+
+    // Persist a notification whose request path failed so the relay retries it later,
+    // in its own transaction because the caller's may already be marked for rollback
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public Notification saveForRetry(Notification notification, NotificationEvent event) {
+        Notification saved = notificationRepository.save(notification.toBuilder().id(null).sent(false).build());
+        enqueue(saved, saved.getType(), event, LocalDateTime.now().plus(retryBackoff));
+        return saved;
+    }
+
+    // Claim up to limit due rows, split across priority classes by weight, plus the pending rows that coalesce
+    // with them into digests. SKIP LOCKED lets several instances claim disjoint sets concurrently.
+    @Transactional
+    public List<NotificationOutbox> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<NotificationPriority, Integer> quotas = priorities.split(limit);
+        List<NotificationOutbox> due = new ArrayList<>();
+        List<NotificationPriority> backlogged = new ArrayList<>();
+        for (Map.Entry<NotificationPriority, Integer> quota : quotas.entrySet()) {
+            List<NotificationOutbox> rows = outboxRepository.lockDue(now, quota.getKey().eventNames(), quota.getValue());
+            due.addAll(rows);
+            if (rows.size() == quota.getValue()) {
+                backlogged.add(quota.getKey());
+            }
+        }
+        // Quota a quiet class left unused goes to the backlogged ones, highest class first. Our own locks are not
+        // skipped, so re-reading with a larger limit returns the rows we hold plus the next ones.
+        for (NotificationPriority priority : backlogged) {
+            int spare = limit - due.size();
+            if (spare <= 0) {
+                break;
+            }
+            Set<Long> held = due.stream().map(NotificationOutbox::getId).collect(Collectors.toSet());
+            outboxRepository.lockDue(now, priority.eventNames(), quotas.get(priority) + spare).stream()
+                    .filter(row -> !held.contains(row.getId()))
+                    .forEach(due::add);
+        }
+        if (due.isEmpty()) {
+            return due;
+        }
+        List<String> coalesceKeys = due.stream().map(NotificationOutbox::getCoalesceKey).filter(Objects::nonNull).distinct().toList();
+        if (!coalesceKeys.isEmpty()) {
+            due.addAll(outboxRepository.lockCoalescing(coalesceKeys, due.stream().map(NotificationOutbox::getId).toList(),
+                    digestPolicy.coalesceUntil(now)));
+        }
+        outboxRepository.lease(due.stream().map(NotificationOutbox::getId).toList(), now.plus(lease));
+        return due;
+    }
+
+    // Delivered: flip the notifications to sent and drop their outbox rows
+    @Transactional
+    public void complete(List<Long> outboxIds, List<Long> notificationIds) {
+        if (outboxIds.isEmpty()) {
+            return;
+        }
+        notificationRepository.markSent(notificationIds, LocalDateTime.now());
+        outboxRepository.deleteAllByIdInBatch(outboxIds);
+    }
+
+    // Delivery failed: back off linearly by attempt, give up after maxAttempts
+    @Transactional
+    public void retryLater(NotificationOutbox row, String error) {
+        if (row.getAttempts() + 1 >= maxAttempts) {
+            logger.error("❌ Giving up on notification ID {} after {} attempts: {}", row.getNotificationId(), row.getAttempts() + 1, error);
+            outboxRepository.reschedule(row.getId(), OutboxStatus.FAILED, LocalDateTime.now(), truncate(error));
+            return;
+        }
+        LocalDateTime next = LocalDateTime.now().plus(retryBackoff.multipliedBy(row.getAttempts() + 1L));
+        outboxRepository.reschedule(row.getId(), OutboxStatus.PENDING, next, truncate(error));
+        timingWheel.schedule(next);
+    }
+
+    // Can never be delivered (e.g. the notification row is gone)
+    @Transactional
+    public void fail(NotificationOutbox row, String error) {
+        logger.error("❌ Dropping outbox entry {} for notification ID {}: {}", row.getId(), row.getNotificationId(), error);
+        outboxRepository.reschedule(row.getId(), OutboxStatus.FAILED, LocalDateTime.now(), truncate(error));
+    }
+
+    // Not attempted (e.g. channel queue full, domain throttled): make them due again after a short delay,
+    // without using up an attempt
+    @Transactional
+    public void release(Collection<NotificationOutbox> rows, Duration delay) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        LocalDateTime next = LocalDateTime.now().plus(delay);
+        outboxRepository.release(rows.stream().map(NotificationOutbox::getId).toList(), next);
+        timingWheel.schedule(next);
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 255 ? error.substring(0, 255) : error;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The queue of one channel lane, split by priority class. Workers take whole batches of a single class, chosen by
+// smooth weighted round-robin among the classes that have work and are under their worker cap. Bulk traffic thus
+// keeps its share without transactional batches ever waiting behind a backlog of it.
+final class PriorityLaneQueue {
+
+    private static final NotificationPriority[] PRIORITIES = NotificationPriority.values();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Map<NotificationPriority, ArrayDeque<NotificationChannel.Delivery>> queues = new EnumMap<>(NotificationPriority.class);
+    private final int capacity;
+    private final int[] weights = new int[PRIORITIES.length];
+    private final int[] maxInFlight = new int[PRIORITIES.length];
+    private final int[] inFlight = new int[PRIORITIES.length];
+    private final int[] current = new int[PRIORITIES.length];
+
+    // capacity applies per class, so a bulk backlog can't fill the space transactional entries need
+    PriorityLaneQueue(int capacity, int workers, NotificationPriorities priorities) {
+        this.capacity = capacity;
+        for (NotificationPriority priority : PRIORITIES) {
+            queues.put(priority, new ArrayDeque<>());
+            weights[priority.ordinal()] = priorities.weight(priority);
+            maxInFlight[priority.ordinal()] = priorities.maxWorkers(priority, workers);
+        }
+    }
+
+    boolean offer(NotificationChannel.Delivery delivery) {
+        NotificationPriority priority = NotificationPriority.of(delivery.outbox().getEvent());
+        lock.lock();
+        try {
+            ArrayDeque<NotificationChannel.Delivery> queue = queues.get(priority);
+            if (queue.size() >= capacity) {
+                return false;
+            }
+            queue.add(delivery);
+            available.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Waits up to timeoutMs for a batch and returns its class, or null on timeout.
+    // The caller must call done() with that class once the batch is delivered.
+    NotificationPriority take(List<NotificationChannel.Delivery> batch, int maxBatch, long timeoutMs) throws InterruptedException {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lockInterruptibly();
+        try {
+            NotificationPriority priority;
+            while ((priority = next()) == null) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = available.awaitNanos(nanos);
+            }
+            ArrayDeque<NotificationChannel.Delivery> queue = queues.get(priority);
+            while (batch.size() < maxBatch && !queue.isEmpty()) {
+                batch.add(queue.poll());
+            }
+            inFlight[priority.ordinal()]++;
+            // Others may still be takeable (this class had more, or another class is waiting)
+            available.signal();
+            return priority;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void done(NotificationPriority priority) {
+        lock.lock();
+        try {
+            inFlight[priority.ordinal()]--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size(NotificationPriority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int remainingCapacity() {
+        lock.lock();
+        try {
+            return queues.values().stream().mapToInt(queue -> capacity - queue.size()).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Smooth weighted round-robin (as in nginx): ties go to the higher class
+    private NotificationPriority next() {
+        int total = 0;
+        NotificationPriority best = null;
+        for (NotificationPriority priority : PRIORITIES) {
+            int i = priority.ordinal();
+            if (queues.get(priority).isEmpty() || inFlight[i] >= maxInFlight[i]) {
+                continue;
+            }
+            current[i] += weights[i];
+            total += weights[i];
+            if (best == null || current[i] > current[best.ordinal()]) {
+                best = priority;
+            }
+        }
+        if (best != null) {
+            current[best.ordinal()] -= total;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Bounded in-process cache in front of ProductServiceClient.
+// Concurrent misses for the same id share one remote call, and unknown products are cached (briefly) as empty.
+@Component
+public class ProductDetailsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductDetailsCache.class);
+
+    private final ProductServiceClient productServiceClient;
+    private final AsyncLoadingCache<Long, Optional<Product>> cache;
+
+    @Autowired
+    public ProductDetailsCache(
+            ProductServiceClient productServiceClient,
+            @Qualifier("notificationIoExecutor") Executor executor,
+            MeterRegistry meterRegistry,
+            @Value("${notification.product-cache.maximum-size:10000}") long maximumSize,
+            @Value("${notification.product-cache.ttl:10m}") Duration ttl,
+            @Value("${notification.product-cache.negative-ttl:1m}") Duration negativeTtl) {
+        this.productServiceClient = productServiceClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ProductExpiry(ttl, negativeTtl))
+                .executor(executor)
+                .recordStats()
+                .buildAsync(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productDetails");
+    }
+
+    // Completes with empty for a null id or a product the product service doesn't know
+    public CompletableFuture<Optional<Product>> get(Long productId) {
+        if (productId == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        try {
+            return cache.get(productId);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Optional<Product> load(Long productId) {
+        try {
+            return Optional.ofNullable(productServiceClient.getProductDetails(productId));
+        } catch (FeignException.NotFound e) {
+            logger.debug("Product {} not found, caching negative result", productId);
+            return Optional.empty();
+        }
+        // Any other failure propagates and is not cached, so the next request retries
+    }
+
+    private static final class ProductExpiry implements Expiry<Long, Optional<Product>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        ProductExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Long key, Optional<Product> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Optional<Product> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Optional<Product> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
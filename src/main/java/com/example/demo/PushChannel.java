@@ -0,0 +1,55 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Push notifications to the customer's registered devices through the configured PushGateway
+@Component
+public class PushChannel implements NotificationChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushChannel.class);
+
+    private final PushGateway gateway;
+    private final NotificationMessageFactory messageFactory;
+    private final NotificationMetrics metrics;
+
+    @Autowired
+    public PushChannel(PushGateway gateway, NotificationMessageFactory messageFactory, NotificationMetrics metrics) {
+        this.gateway = gateway;
+        this.messageFactory = messageFactory;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.PUSH;
+    }
+
+    @Override
+    public void validate(Notification notification) throws NotificationException {
+        if (notification.getCustomerId() == null) {
+            throw new NotificationException("❌ Customer ID is required for push notification.");
+        }
+    }
+
+    @Override
+    public List<DeliveryFailure> deliver(List<Delivery> batch) {
+        List<DeliveryFailure> failures = new ArrayList<>();
+        for (Delivery delivery : batch) {
+            try {
+                NotificationTemplateEngine.RenderedMessage rendered = messageFactory.render(delivery);
+                metrics.time(NotificationMetrics.Stage.PUSH_SEND,
+                        () -> gateway.send(delivery.notification().getCustomerId(), rendered.subject(), rendered.body()));
+            } catch (Exception e) {
+                logger.error("❌ Failed to send push for notification ID {}: {}", delivery.notification().getId(), e.getMessage());
+                failures.add(new DeliveryFailure(delivery, e.getMessage()));
+            }
+        }
+        return failures;
+    }
+}
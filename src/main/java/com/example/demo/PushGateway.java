@@ -0,0 +1,8 @@
+package com.example.demo;
+
+// Sends push notifications for PushChannel, addressed by customer. The HTTP gateway is used when
+// notification.channel.push.gateway=http, otherwise (gateway=log, dev and test profiles only) messages are only logged.
+public interface PushGateway {
+
+    void send(Long customerId, String title, String body);
+}
@@ -0,0 +1,54 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Text messages to the notification's phone number through the configured SmsGateway
+@Component
+public class SmsChannel implements NotificationChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmsChannel.class);
+
+    private final SmsGateway gateway;
+    private final NotificationMessageFactory messageFactory;
+    private final NotificationMetrics metrics;
+
+    @Autowired
+    public SmsChannel(SmsGateway gateway, NotificationMessageFactory messageFactory, NotificationMetrics metrics) {
+        this.gateway = gateway;
+        this.messageFactory = messageFactory;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.SMS;
+    }
+
+    @Override
+    public void validate(Notification notification) throws NotificationException {
+        if (notification.getPhoneNumber() == null || notification.getPhoneNumber().trim().isEmpty()) {
+            throw new NotificationException("❌ Phone number is required for SMS notification.");
+        }
+    }
+
+    @Override
+    public List<DeliveryFailure> deliver(List<Delivery> batch) {
+        List<DeliveryFailure> failures = new ArrayList<>();
+        for (Delivery delivery : batch) {
+            try {
+                String text = messageFactory.render(delivery).body();
+                metrics.time(NotificationMetrics.Stage.SMS_SEND, () -> gateway.send(delivery.notification().getPhoneNumber(), text));
+            } catch (Exception e) {
+                logger.error("❌ Failed to send SMS for notification ID {}: {}", delivery.notification().getId(), e.getMessage());
+                failures.add(new DeliveryFailure(delivery, e.getMessage()));
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo;
+
+// Sends text messages for SmsChannel. The HTTP gateway is used when notification.channel.sms.gateway=http,
+// otherwise (gateway=log, dev and test profiles only) messages are only logged.
+public interface SmsGateway {
+
+    void send(String phoneNumber, String text);
+}
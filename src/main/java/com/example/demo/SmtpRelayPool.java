@@ -0,0 +1,152 @@
+package com.example.demo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The SMTP relays (hosts or accounts) email goes out through, from notification.channel.email.relays[i].*;
+// without any, the spring.mail server is the only one. Every worker connection is opened against one relay,
+// picked at random by weight times health, so load is spread across them. Health is a moving average of
+// send outcomes; a relay that keeps failing sits out a cooldown and then gets probed again.
+@Component
+public class SmtpRelayPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmtpRelayPool.class);
+
+    private static final double HEALTH_ALPHA = 0.1;
+    private static final double MIN_HEALTH = 0.05;
+    private static final int FAILURES_BEFORE_COOLDOWN = 3;
+
+    private final List<Relay> relays = new ArrayList<>();
+    private final long cooldownNanos;
+
+    @Autowired
+    public SmtpRelayPool(JavaMailSender mailSender, Environment environment, MeterRegistry meterRegistry) {
+        for (int i = 0; environment.containsProperty("notification.channel.email.relays[" + i + "].host"); i++) {
+            String prefix = "notification.channel.email.relays[" + i + "].";
+            relays.add(new Relay(
+                    environment.getProperty(prefix + "name", "relay-" + i),
+                    environment.getProperty(prefix + "host"),
+                    environment.getProperty(prefix + "port", Integer.class, 587),
+                    environment.getProperty(prefix + "username"),
+                    environment.getProperty(prefix + "password"),
+                    Math.max(1, environment.getProperty(prefix + "weight", Integer.class, 1))));
+        }
+        if (relays.isEmpty() && mailSender instanceof JavaMailSenderImpl sender) {
+            relays.add(new Relay("default", sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword(), 1));
+        }
+        this.cooldownNanos = environment.getProperty("notification.channel.email.relay-cooldown", Duration.class, Duration.ofSeconds(30)).toNanos();
+        for (Relay relay : relays) {
+            Gauge.builder("notification.email.relay.health", relay, r -> r.health).tag("relay", relay.name()).register(meterRegistry);
+        }
+    }
+
+    public Relay pick() {
+        if (relays.isEmpty()) {
+            throw new IllegalStateException("No SMTP relay configured");
+        }
+        long now = System.nanoTime();
+        double total = 0;
+        for (Relay relay : relays) {
+            total += relay.score(now);
+        }
+        if (total == 0) {
+            // Everything is cooling down: probe the one that comes back first
+            Relay soonest = relays.get(0);
+            for (Relay relay : relays) {
+                if (relay.coolingUntil - soonest.coolingUntil < 0) {
+                    soonest = relay;
+                }
+            }
+            return soonest;
+        }
+        double point = ThreadLocalRandom.current().nextDouble(total);
+        for (Relay relay : relays) {
+            point -= relay.score(now);
+            if (point < 0) {
+                return relay;
+            }
+        }
+        return relays.get(relays.size() - 1);
+    }
+
+    public void succeeded(Relay relay) {
+        relay.record(true, System.nanoTime());
+    }
+
+    // Connection-level trouble (refused, timed out, 421 closing): counts against the relay, not the recipient
+    public void failed(Relay relay) {
+        relay.record(false, System.nanoTime());
+    }
+
+    public final class Relay {
+
+        private final String name;
+        private final String host;
+        private final int port;
+        private final String username;
+        private final String password;
+        private final int weight;
+        private volatile double health = 1.0;
+        private int consecutiveFailures;
+        private volatile long coolingUntil = System.nanoTime();
+
+        Relay(String name, String host, int port, String username, String password, int weight) {
+            this.name = name;
+            this.host = host;
+            this.port = port;
+            this.username = username;
+            this.password = password;
+            this.weight = weight;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String host() {
+            return host;
+        }
+
+        public int port() {
+            return port;
+        }
+
+        public String username() {
+            return username;
+        }
+
+        public String password() {
+            return password;
+        }
+
+        double score(long now) {
+            return now - coolingUntil < 0 ? 0 : weight * health;
+        }
+
+        synchronized void record(boolean success, long now) {
+            health = Math.max(MIN_HEALTH, health * (1 - HEALTH_ALPHA) + (success ? HEALTH_ALPHA : 0));
+            if (success) {
+                consecutiveFailures = 0;
+                return;
+            }
+            if (++consecutiveFailures >= FAILURES_BEFORE_COOLDOWN) {
+                consecutiveFailures = 0;
+                coolingUntil = now + cooldownNanos;
+                logger.warn("🧊 SMTP relay {} ({}) failing, cooling down for {}s", name, host, cooldownNanos / 1_000_000_000);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo;
+
+import java.util.BitSet;
+
+// Two-level hierarchical timing wheel over absolute tick numbers. It only records *that* something is due at a
+// tick, not what: the outbox query finds the rows. Memory is fixed (slots + slots^2 bits) no matter how many
+// notifications share a tick. Level 0 holds the ticks of the current rotation; level 1 one bit set per later
+// rotation, cascaded into level 0 when the rotation starts. Not thread-safe.
+final class TimingWheel {
+
+    private final int slots;
+    private final boolean[] level0;
+    private final BitSet[] level1;
+    private long currentTick;
+
+    TimingWheel(int slots, long startTick) {
+        this.slots = slots;
+        this.level0 = new boolean[slots];
+        this.level1 = new BitSet[slots];
+        for (int i = 0; i < slots; i++) {
+            level1[i] = new BitSet(slots);
+        }
+        this.currentTick = startTick;
+    }
+
+    // false when the tick is already due (the caller fires right away) or beyond the last rotation held;
+    // anything within (slots - 1) * slots ticks from now always fits
+    boolean add(long tick) {
+        if (tick <= currentTick) {
+            return false;
+        }
+        long rotation = tick / slots;
+        long currentRotation = currentTick / slots;
+        if (rotation == currentRotation) {
+            level0[(int) (tick % slots)] = true;
+            return true;
+        }
+        if (rotation < currentRotation + slots) {
+            level1[(int) (rotation % slots)].set((int) (tick % slots));
+            return true;
+        }
+        return false;
+    }
+
+    // Move to tick; true if anything was due on the way. A jump past the whole span (clock change, long pause)
+    // clears the wheel and reports due, and the next preload fills it again.
+    boolean advanceTo(long tick) {
+        if (tick <= currentTick) {
+            return false;
+        }
+        if (tick - currentTick >= (long) slots * slots) {
+            clear();
+            currentTick = tick;
+            return true;
+        }
+        boolean due = false;
+        while (currentTick < tick) {
+            currentTick++;
+            int index = (int) (currentTick % slots);
+            if (index == 0) {
+                BitSet rotation = level1[(int) ((currentTick / slots) % slots)];
+                for (int i = rotation.nextSetBit(0); i >= 0; i = rotation.nextSetBit(i + 1)) {
+                    level0[i] = true;
+                }
+                rotation.clear();
+            }
+            if (level0[index]) {
+                level0[index] = false;
+                due = true;
+            }
+        }
+        return due;
+    }
+
+    private void clear() {
+        for (int i = 0; i < slots; i++) {
+            level0[i] = false;
+            level1[i].clear();
+        }
+    }
+}
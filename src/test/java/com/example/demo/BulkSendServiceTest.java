@@ -0,0 +1,123 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Campaign recipient paging against an embedded database; chunks run inline
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@ContextConfiguration(classes = BulkSendServiceTest.JpaConfig.class)
+class BulkSendServiceTest {
+
+    @Configuration
+    @AutoConfigurationPackage
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final List<List<Notification>> chunks = new ArrayList<>();
+    private BulkSendService service;
+
+    @BeforeEach
+    void setUp() {
+        NotificationService notificationService = mock(NotificationService.class);
+        when(notificationService.sendNotifications(anyList(), eq(NotificationEvent.CAMPAIGN))).thenAnswer(invocation -> {
+            List<Notification> chunk = invocation.getArgument(0);
+            chunks.add(chunk);
+            return chunk;
+        });
+        service = new BulkSendService(notificationService, jdbcTemplate, Runnable::run, new ObjectMapper(), 2, Duration.ofHours(1));
+    }
+
+    private void contact(long customerId, String email, String phoneNumber, String locale) {
+        entityManager.persist(Notification.builder()
+                .customerId(customerId).email(email).phoneNumber(phoneNumber).locale(locale)
+                .type(NotificationType.EMAIL)
+                .build());
+    }
+
+    private List<Notification> recipients() {
+        return chunks.stream().flatMap(List::stream).toList();
+    }
+
+    @Test
+    void contactDetailsComeFromEachCustomersLatestReachableRow() {
+        contact(1L, "z@old.example", null, "en-GB");
+        contact(1L, "a@new.example", "+15550001", null);
+        contact(1L, null, "+15550002", "hi-IN");  // latest, but no email
+        entityManager.flush();
+
+        service.submit(new BulkSendService.Campaign(NotificationType.EMAIL, "Sale", null), null);
+
+        assertThat(recipients()).singleElement().satisfies(n -> {
+            assertThat(n.getCustomerId()).isEqualTo(1L);
+            assertThat(n.getEmail()).isEqualTo("a@new.example");
+            assertThat(n.getPhoneNumber()).isEqualTo("+15550001");
+            assertThat(n.getLocale()).isNull();
+            assertThat(n.getMessage()).isEqualTo("Sale");
+        });
+    }
+
+    @Test
+    void recipientsArePagedByCustomerInChunks() {
+        for (long customerId = 5; customerId >= 1; customerId--) {
+            contact(customerId, "c" + customerId + "@example.com", null, null);
+        }
+        entityManager.flush();
+
+        service.submit(new BulkSendService.Campaign(NotificationType.EMAIL, "Sale", null), null);
+
+        assertThat(chunks).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(recipients()).extracting(Notification::getCustomerId).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void customerFilterIsDedupedAndSorted() {
+        for (long customerId = 1; customerId <= 5; customerId++) {
+            contact(customerId, "c" + customerId + "@example.com", null, null);
+        }
+        entityManager.flush();
+
+        service.submit(new BulkSendService.Campaign(NotificationType.EMAIL, "Sale", Arrays.asList(5L, 3L, null, 3L, 9L)), null);
+
+        assertThat(recipients()).extracting(Notification::getCustomerId).containsExactly(3L, 5L);
+    }
+
+    @Test
+    void recipientsAreKeyedOnTheCampaignAndCustomer() {
+        contact(1L, "c1@example.com", null, null);
+        contact(2L, "c2@example.com", null, null);
+        entityManager.flush();
+
+        BulkSendJob job = service.submit(new BulkSendService.Campaign(NotificationType.EMAIL, "Sale", null), null);
+        service.submit(new BulkSendService.Campaign(NotificationType.EMAIL, "Sale", null), "spring-sale");
+
+        assertThat(recipients()).extracting(Notification::getIdempotencyKey).containsExactly(
+                "campaign:" + job.getId() + ":EMAIL:1", "campaign:" + job.getId() + ":EMAIL:2",
+                "campaign:spring-sale:EMAIL:1", "campaign:spring-sale:EMAIL:2");
+    }
+}
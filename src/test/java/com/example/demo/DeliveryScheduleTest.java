@@ -0,0 +1,71 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+// Quiet hours in the JVM's own zone, so wall-clock times read the same on both sides
+class DeliveryScheduleTest {
+
+    private static final String ZONE = ZoneId.systemDefault().getId();
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 14);
+
+    private final Notification notification = Notification.builder().orderId(42L).build();
+
+    private static DeliverySchedule schedule(String start, String end) {
+        return new DeliverySchedule(true, start, end, ZONE, Set.of(NotificationPriority.BULK, NotificationPriority.UPDATE), "08:00");
+    }
+
+    @Test
+    void quietHoursAcrossMidnightMoveToTheirEnd() {
+        DeliverySchedule schedule = schedule("21:00", "08:00");
+
+        assertThat(schedule.dueAt(notification, NotificationEvent.CAMPAIGN, DAY.atTime(22, 30))).isEqualTo(DAY.plusDays(1).atTime(8, 0));
+        assertThat(schedule.dueAt(notification, NotificationEvent.CAMPAIGN, DAY.atTime(3, 0))).isEqualTo(DAY.atTime(8, 0));
+        assertThat(schedule.dueAt(notification, NotificationEvent.CAMPAIGN, DAY.atTime(21, 0))).isEqualTo(DAY.plusDays(1).atTime(8, 0));
+        assertThat(schedule.dueAt(notification, NotificationEvent.CAMPAIGN, DAY.atTime(8, 0))).isEqualTo(DAY.atTime(8, 0));
+        assertThat(schedule.dueAt(notification, NotificationEvent.CAMPAIGN, DAY.atTime(12, 0))).isEqualTo(DAY.atTime(12, 0));
+    }
+
+    @Test
+    void quietHoursWithinADay() {
+        DeliverySchedule schedule = schedule("12:00", "14:00");
+
+        assertThat(schedule.dueAt(notification, NotificationEvent.ORDER_UPDATE, DAY.atTime(13, 0))).isEqualTo(DAY.atTime(14, 0));
+        assertThat(schedule.dueAt(notification, NotificationEvent.ORDER_UPDATE, DAY.atTime(22, 0))).isEqualTo(DAY.atTime(22, 0));
+    }
+
+    @Test
+    void transactionalClassIgnoresQuietHours() {
+        LocalDateTime night = DAY.atTime(23, 0);
+
+        assertThat(schedule("21:00", "08:00").dueAt(notification, NotificationEvent.ORDER_CONFIRMATION, night)).isEqualTo(night);
+    }
+
+    @Test
+    void laterSendAtWinsAndIsItselfSubjectToQuietHours() {
+        DeliverySchedule schedule = schedule("21:00", "08:00");
+        LocalDateTime now = DAY.atTime(10, 0);
+
+        Notification afternoon = notification.toBuilder().sendAt(DAY.atTime(15, 0)).build();
+        Notification lateNight = notification.toBuilder().sendAt(DAY.atTime(23, 0)).build();
+        Notification past = notification.toBuilder().sendAt(DAY.atTime(9, 0)).build();
+
+        assertThat(schedule.dueAt(afternoon, NotificationEvent.CAMPAIGN, now)).isEqualTo(DAY.atTime(15, 0));
+        assertThat(schedule.dueAt(lateNight, NotificationEvent.CAMPAIGN, now)).isEqualTo(DAY.plusDays(1).atTime(8, 0));
+        assertThat(schedule.dueAt(past, NotificationEvent.CAMPAIGN, now)).isEqualTo(now);
+    }
+
+    @Test
+    void disabledQuietHoursOnlyApplySendAt() {
+        DeliverySchedule schedule = new DeliverySchedule(false, "21:00", "08:00", ZONE, Set.of(NotificationPriority.BULK), "08:00");
+
+        assertThat(schedule.dueAt(notification, NotificationEvent.CAMPAIGN, DAY.atTime(23, 0))).isEqualTo(DAY.atTime(23, 0));
+        assertThat(schedule.reminderAt(DAY)).isEqualTo(DAY.atTime(8, 0));
+    }
+}
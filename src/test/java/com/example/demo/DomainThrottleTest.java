@@ -0,0 +1,78 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DomainThrottleTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private DomainThrottle throttle(double defaultRate, String limits) {
+        return new DomainThrottle(defaultRate, 0.5, 50, 1, 0.5, Duration.ofSeconds(30), limits, registry);
+    }
+
+    @Test
+    void burstIsOneSecondAtTheCurrentRate() {
+        DomainThrottle throttle = throttle(3, "");
+
+        assertThat(throttle.tryAcquire("a@example.com")).isTrue();
+        assertThat(throttle.tryAcquire("b@example.com")).isTrue();
+        assertThat(throttle.tryAcquire("c@example.com")).isTrue();
+        assertThat(throttle.tryAcquire("d@example.com")).isFalse();
+        assertThat(registry.counter("notification.email.domain.throttled").count()).isEqualTo(1);
+    }
+
+    @Test
+    void domainsHaveTheirOwnBuckets() {
+        DomainThrottle throttle = throttle(1, "");
+
+        assertThat(throttle.tryAcquire("a@one.example")).isTrue();
+        assertThat(throttle.tryAcquire("a@one.example")).isFalse();
+        assertThat(throttle.tryAcquire("a@two.example")).isTrue();
+    }
+
+    @Test
+    void configuredLimitCapsTheDomain() {
+        DomainThrottle throttle = throttle(5, "slow.example:1, other.example:20");
+
+        assertThat(throttle.tryAcquire("a@SLOW.example")).isTrue();
+        assertThat(throttle.tryAcquire("b@slow.example")).isFalse();
+        assertThat(throttle.tryAcquire("a@fast.example")).isTrue();
+        assertThat(throttle.tryAcquire("b@fast.example")).isTrue();
+    }
+
+    @Test
+    void givenBackPermitCanBeTakenAgain() {
+        DomainThrottle throttle = throttle(1, "");
+        assertThat(throttle.tryAcquire("a@example.com")).isTrue();
+        assertThat(throttle.tryAcquire("b@example.com")).isFalse();
+
+        throttle.giveBack("a@example.com");
+
+        assertThat(throttle.tryAcquire("b@example.com")).isTrue();
+    }
+
+    @Test
+    void deferralPausesTheDomain() {
+        DomainThrottle throttle = throttle(10, "");
+        assertThat(throttle.tryAcquire("a@example.com")).isTrue();
+
+        throttle.deferred("a@example.com");
+
+        assertThat(throttle.tryAcquire("b@example.com")).isFalse();
+        assertThat(throttle.tryAcquire("b@elsewhere.example")).isTrue();
+        assertThat(registry.counter("notification.email.domain.deferred").count()).isEqualTo(1);
+    }
+
+    @Test
+    void domainIsTheLowercasedPartAfterTheLastAt() {
+        assertThat(DomainThrottle.domainOf("\"a@b\"@Example.COM ")).isEqualTo("example.com");
+        assertThat(DomainThrottle.domainOf("no-at-sign")).isEmpty();
+        assertThat(DomainThrottle.domainOf(null)).isEmpty();
+    }
+}
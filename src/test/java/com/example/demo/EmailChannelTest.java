@@ -0,0 +1,81 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+class EmailChannelTest {
+
+    private static NotificationChannel.Delivery delivery(long id, String email) {
+        Notification notification = Notification.builder().id(id).email(email).type(NotificationType.EMAIL).build();
+        NotificationOutbox outbox = NotificationOutbox.builder().id(id).notificationId(id).channel(NotificationType.EMAIL).build();
+        return new NotificationChannel.Delivery(outbox, notification);
+    }
+
+    @Test
+    void holdsBackOnlyWhatTheRecipientDomainHasNoPermitFor() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        // One message per second per domain, and no burst beyond it
+        DomainThrottle throttle = new DomainThrottle(1, 1, 1, 0, 0.5, Duration.ofSeconds(30), "", new SimpleMeterRegistry());
+        EmailChannel channel = new EmailChannel(mailSender, null, 100, new NotificationMetrics(new SimpleMeterRegistry()),
+                new SmtpRelayPool(mailSender, new StandardEnvironment(), new SimpleMeterRegistry()), throttle);
+        List<NotificationChannel.Delivery> batch = List.of(
+                delivery(1, "a@big.example"), delivery(2, "b@big.example"), delivery(3, "c@small.example"));
+
+        List<NotificationChannel.DeliveryFailure> held = channel.holdBack(batch);
+
+        assertThat(held).hasSize(1);
+        assertThat(held.get(0).delivery()).isSameAs(batch.get(1));
+        assertThat(held.get(0).deferred()).isTrue();
+    }
+
+    @Test
+    void readsTheSmtpReplyCodeFromTheFailureChain() {
+        assertThat(EmailChannel.smtpReplyCode(new MessagingException("421 4.7.0 Try again later"))).isEqualTo(421);
+        assertThat(EmailChannel.smtpReplyCode(new MessagingException("Send failed",
+                new MessagingException("452-4.2.2 Mailbox full")))).isEqualTo(452);
+        assertThat(EmailChannel.smtpReplyCode(new MessagingException("Connection refused"))).isEqualTo(-1);
+    }
+
+    private static NotificationChannel.DeliveryFailure sendFailingWith(String reply) {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        doThrow(new MailSendException(reply)).when(mailSender).send(any(MimeMessage.class));
+        NotificationMessageFactory messageFactory = mock(NotificationMessageFactory.class);
+        when(messageFactory.render(any())).thenReturn(new NotificationTemplateEngine.RenderedMessage("Subject", "Body", false));
+        DomainThrottle throttle = new DomainThrottle(5, 1, 50, 1, 0.5, Duration.ofSeconds(30), "", new SimpleMeterRegistry());
+        EmailChannel channel = new EmailChannel(mailSender, messageFactory, 100, new NotificationMetrics(new SimpleMeterRegistry()),
+                new SmtpRelayPool(mailSender, new StandardEnvironment(), new SimpleMeterRegistry()), throttle);
+
+        List<NotificationChannel.DeliveryFailure> failures = channel.deliver(List.of(delivery(1, "a@example.com")));
+
+        assertThat(failures).hasSize(1);
+        return failures.get(0);
+    }
+
+    @Test
+    void permanentReplyFailsForGood() {
+        assertThat(sendFailingWith("550 5.1.1 User unknown").kind()).isEqualTo(NotificationChannel.DeliveryFailure.Kind.PERMANENT);
+    }
+
+    @Test
+    void transientReplyIsRetried() {
+        assertThat(sendFailingWith("451 4.3.0 Try again later").kind()).isEqualTo(NotificationChannel.DeliveryFailure.Kind.RETRY);
+        assertThat(sendFailingWith("Connection refused").kind()).isEqualTo(NotificationChannel.DeliveryFailure.Kind.RETRY);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class IdempotencyGuardTest {
+
+    private static Notification line(Long orderId, Long productId) {
+        return Notification.builder().orderId(orderId).productId(productId).build();
+    }
+
+    @Test
+    void linesOfOneOrderGetTheirOwnKeys() {
+        String first = IdempotencyGuard.keyFor(line(42L, 1L), NotificationType.EMAIL, NotificationEvent.ORDER_CONFIRMATION, null);
+        String second = IdempotencyGuard.keyFor(line(42L, 2L), NotificationType.EMAIL, NotificationEvent.ORDER_CONFIRMATION, null);
+
+        assertThat(first).isEqualTo("42/1:EMAIL:ORDER_CONFIRMATION");
+        assertThat(second).isNotEqualTo(first);
+        assertThat(IdempotencyGuard.keyFor(line(42L, 1L), NotificationType.EMAIL, NotificationEvent.ORDER_CONFIRMATION, null))
+                .isEqualTo(first);
+    }
+
+    @Test
+    void orderWithoutProductKeysOnTheOrder() {
+        assertThat(IdempotencyGuard.keyFor(line(42L, null), NotificationType.SMS, NotificationEvent.ORDER_UPDATE, null))
+                .isEqualTo("42:SMS:ORDER_UPDATE");
+    }
+
+    @Test
+    void keyChangesWithTypeEventAndDiscriminator() {
+        Notification n = line(42L, 1L);
+        String key = IdempotencyGuard.keyFor(n, NotificationType.EMAIL, NotificationEvent.ORDER_UPDATE, "Shipped");
+
+        assertThat(key).isNotEqualTo(IdempotencyGuard.keyFor(n, NotificationType.SMS, NotificationEvent.ORDER_UPDATE, "Shipped"));
+        assertThat(key).isNotEqualTo(IdempotencyGuard.keyFor(n, NotificationType.EMAIL, NotificationEvent.ORDER_STATUS, "Shipped"));
+        assertThat(key).isNotEqualTo(IdempotencyGuard.keyFor(n, NotificationType.EMAIL, NotificationEvent.ORDER_UPDATE, "Delivered"));
+    }
+
+    @Test
+    void clientKeyWinsAndLongKeysAreDigested() {
+        Notification n = line(42L, 1L);
+        n.setIdempotencyKey("client-key");
+        assertThat(IdempotencyGuard.keyFor(n, NotificationType.EMAIL, NotificationEvent.ORDER_CONFIRMATION, null))
+                .isEqualTo("client-key");
+
+        n.setIdempotencyKey("k".repeat(IdempotencyGuard.MAX_KEY_LENGTH + 1));
+        assertThat(IdempotencyGuard.keyFor(n, NotificationType.EMAIL, NotificationEvent.ORDER_CONFIRMATION, null))
+                .hasSizeLessThanOrEqualTo(IdempotencyGuard.MAX_KEY_LENGTH);
+    }
+
+    @Test
+    void nothingToKeyOnWithoutAnOrder() {
+        assertThat(IdempotencyGuard.keyFor(line(null, 1L), NotificationType.EMAIL, NotificationEvent.ORDER_CONFIRMATION, null))
+                .isNull();
+    }
+}
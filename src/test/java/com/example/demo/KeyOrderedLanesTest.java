@@ -0,0 +1,69 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class KeyOrderedLanesTest {
+
+    private record Item(Long key, String value) {
+    }
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    // Two lanes: even keys (and null) in lane 0, odd keys in lane 1
+    private final KeyOrderedLanes lanes = new KeyOrderedLanes(executor, true, 2);
+    private final List<Item> items = List.of(
+            new Item(1L, "a"), new Item(2L, "b"), new Item(1L, "c"), new Item(null, "d"), new Item(3L, "e"));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void sameKeyKeepsItsOrderInOneLane() {
+        List<List<String>> seen = Collections.synchronizedList(new ArrayList<>());
+
+        Optional<KeyOrderedLanes.Failure> failure = lanes.process(items, Item::key,
+                lane -> seen.add(lane.stream().map(Item::value).toList()));
+
+        assertThat(failure).isEmpty();
+        assertThat(seen).containsExactlyInAnyOrder(List.of("a", "c", "e"), List.of("b", "d"));
+    }
+
+    @Test
+    void failureReportsTheFailedLanesFirstIndex() {
+        IllegalStateException boom = new IllegalStateException("boom");
+
+        Optional<KeyOrderedLanes.Failure> failure = lanes.process(items, Item::key, lane -> {
+            if (lane.get(0).value().equals("b")) {
+                throw boom;
+            }
+        });
+
+        assertThat(failure).hasValueSatisfying(f -> {
+            assertThat(f.index()).isEqualTo(1);
+            assertThat(f.cause()).isSameAs(boom);
+        });
+    }
+
+    @Test
+    void lowestIndexWinsWhenSeveralLanesFail() {
+        Optional<KeyOrderedLanes.Failure> failure = lanes.process(items, Item::key, lane -> {
+            throw new IllegalStateException("lane of " + lane.get(0).value());
+        });
+
+        assertThat(failure).hasValueSatisfying(f -> {
+            assertThat(f.index()).isZero();
+            assertThat(f.cause()).hasMessage("lane of a");
+        });
+    }
+}
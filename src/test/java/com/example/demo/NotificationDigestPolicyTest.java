@@ -0,0 +1,53 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+class NotificationDigestPolicyTest {
+
+    private final NotificationDigestPolicy policy = new NotificationDigestPolicy(true, Duration.ofSeconds(10));
+
+    private final Notification notification = Notification.builder()
+            .customerId(7L).orderId(42L).orderReference("ORD-42").type(NotificationType.EMAIL).build();
+
+    @Test
+    void keyIsPerCustomerOrderChannelAndEvent() {
+        String update = policy.coalesceKey(notification, NotificationType.EMAIL, NotificationEvent.ORDER_UPDATE);
+
+        assertThat(update).isEqualTo(policy.coalesceKey(notification, NotificationType.EMAIL, NotificationEvent.ORDER_UPDATE));
+        assertThat(update).isNotEqualTo(policy.coalesceKey(notification, NotificationType.EMAIL, NotificationEvent.ORDER_STATUS));
+        assertThat(update).isNotEqualTo(policy.coalesceKey(notification, NotificationType.SMS, NotificationEvent.ORDER_UPDATE));
+    }
+
+    @Test
+    void disabledOrAnonymousRowsGoOutOnTheirOwn() {
+        NotificationDigestPolicy disabled = new NotificationDigestPolicy(false, Duration.ofSeconds(10));
+        Notification anonymous = notification.toBuilder().customerId(null).build();
+
+        assertThat(disabled.coalesceKey(notification, NotificationType.EMAIL, NotificationEvent.ORDER_UPDATE)).isNull();
+        assertThat(policy.coalesceKey(anonymous, NotificationType.EMAIL, NotificationEvent.ORDER_UPDATE)).isNull();
+        assertThat(disabled.availableAt(null, LocalDateTime.of(2025, 1, 1, 9, 0))).isEqualTo(LocalDateTime.of(2025, 1, 1, 9, 0));
+    }
+
+    @Test
+    void transactionalAndTimedRowsAreNeverHeldBack() {
+        Notification scheduled = notification.toBuilder().sendAt(LocalDateTime.of(2025, 1, 1, 9, 0)).build();
+
+        assertThat(policy.coalesceKey(notification, NotificationType.EMAIL, NotificationEvent.ORDER_CONFIRMATION)).isNull();
+        assertThat(policy.coalesceKey(notification, NotificationType.EMAIL, NotificationEvent.DELIVERY_REMINDER)).isNull();
+        assertThat(policy.coalesceKey(scheduled, NotificationType.EMAIL, NotificationEvent.ORDER_UPDATE)).isNull();
+        assertThat(policy.coalesceKey(notification, NotificationType.EMAIL, NotificationEvent.CAMPAIGN)).isNotNull();
+    }
+
+    @Test
+    void coalescableRowsWaitOutTheWindowAndOnlyRowsInsideItAreSwept() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+        assertThat(policy.availableAt("key", now)).isEqualTo(now.plusSeconds(10));
+        assertThat(policy.coalesceUntil(now)).isEqualTo(now.plusSeconds(10));
+    }
+}
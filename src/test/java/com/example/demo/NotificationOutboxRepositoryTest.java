@@ -0,0 +1,100 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+
+// Outbox statements against an embedded database. The application class is left out on purpose:
+// its Feign, Kafka and discovery setup has no place in a JPA slice.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@ContextConfiguration(classes = NotificationOutboxRepositoryTest.JpaConfig.class)
+class NotificationOutboxRepositoryTest {
+
+    @Configuration
+    @AutoConfigurationPackage
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private NotificationOutboxRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private NotificationOutbox pending(LocalDateTime availableAt) {
+        return entityManager.persistFlushFind(NotificationOutbox.builder()
+                .notificationId(1L)
+                .channel(NotificationType.EMAIL)
+                .event(NotificationEvent.ORDER_UPDATE)
+                .status(OutboxStatus.PENDING)
+                .availableAt(availableAt)
+                .createdAt(availableAt)
+                .build());
+    }
+
+    private NotificationOutbox reload(NotificationOutbox row) {
+        entityManager.clear();
+        return entityManager.find(NotificationOutbox.class, row.getId());
+    }
+
+    @Test
+    void releaseHandsBackTheAttemptTheLeaseCounted() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        NotificationOutbox row = pending(now);
+
+        repository.lease(List.of(row.getId()), now.plusMinutes(5));
+        NotificationOutbox leased = reload(row);
+        assertThat(leased.getStatus()).isEqualTo(OutboxStatus.IN_FLIGHT);
+        assertThat(leased.getAttempts()).isEqualTo(1);
+
+        repository.release(List.of(row.getId()), now.plusSeconds(1));
+        NotificationOutbox released = reload(row);
+        assertThat(released.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(released.getAttempts()).isZero();
+        assertThat(released.getAvailableAt()).isEqualTo(now.plusSeconds(1));
+    }
+
+    @Test
+    void repeatedDeferralsNeverUseUpAttempts() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        NotificationOutbox row = pending(now);
+
+        for (int i = 0; i < 20; i++) {
+            repository.lease(List.of(row.getId()), now.plusMinutes(5));
+            repository.release(List.of(row.getId()), now);
+        }
+
+        assertThat(reload(row).getAttempts()).isZero();
+    }
+
+    @Test
+    void dueTicksComeOncePerTickNotOncePerRow() {
+        LocalDateTime origin = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int millis = 1; millis <= 1000; millis += 7) {
+            pending(origin.plus(millis, ChronoUnit.MILLIS));
+        }
+        pending(origin.plus(1500, ChronoUnit.MILLIS));
+        pending(origin.plus(1999, ChronoUnit.MILLIS));
+        // Outside (from, to]
+        pending(origin);
+        pending(origin.plusSeconds(10));
+
+        List<Number> ticks = repository.findPendingDueTicks(origin, 1000, origin, origin.plusSeconds(5));
+
+        // Rounded up, so the wheel never wakes before a row is due
+        assertThat(ticks.stream().map(Number::longValue).collect(Collectors.toSet())).isEqualTo(Set.of(1L, 2L));
+        assertThat(ticks).hasSize(2);
+    }
+}
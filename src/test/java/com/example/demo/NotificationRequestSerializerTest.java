@@ -0,0 +1,55 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class NotificationRequestSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NotificationRequestSerializer serializer = new NotificationRequestSerializer(objectMapper.writer(), true);
+
+    private static NotificationRequest request(String price) {
+        NotificationRequest request = new NotificationRequest();
+        request.setOrderId(42L);
+        request.setPrice(new BigDecimal(price));
+        request.setType(NotificationType.EMAIL);
+        return request;
+    }
+
+    @Test
+    void avroKeepsThePriceExactly() throws Exception {
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize("notification-topic", headers, request("1499.5"));
+
+        assertThat(headers.lastHeader(NotificationConstants.WIRE_FORMAT_KAFKA_HEADER)).isNotNull();
+        assertThat(NotificationRequestAvro.deserialize(bytes).getPrice()).isEqualByComparingTo("1499.50");
+    }
+
+    @Test
+    void priceAvroCannotHoldIsRejectedInsteadOfRounded() {
+        assertThatThrownBy(() -> NotificationRequestAvro.serialize(request("9.999")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("decimals");
+        assertThatThrownBy(() -> NotificationRequestAvro.serialize(request("12345678901.00")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("digits");
+    }
+
+    @Test
+    void subCentPriceIsWrittenAsJsonUnchanged() throws Exception {
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize("notification-topic", headers, request("9.999"));
+
+        assertThat(headers.lastHeader(NotificationConstants.WIRE_FORMAT_KAFKA_HEADER)).isNull();
+        assertThat(objectMapper.readValue(bytes, NotificationRequest.class).getPrice()).isEqualByComparingTo("9.999");
+    }
+}
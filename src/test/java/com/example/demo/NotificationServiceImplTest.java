@@ -0,0 +1,104 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NotificationServiceImplTest {
+
+    private NotificationRepository repository;
+    private NotificationEnricher enricher;
+    private OutboxStore outboxStore;
+    private IdempotencyGuard idempotencyGuard;
+    private NotificationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationRepository.class);
+        enricher = mock(NotificationEnricher.class);
+        outboxStore = mock(OutboxStore.class);
+        idempotencyGuard = mock(IdempotencyGuard.class);
+        when(idempotencyGuard.tryClaim(anyString())).thenReturn(true);
+        service = new NotificationServiceImpl(repository, enricher, mock(NotificationBatchWriter.class), outboxStore,
+                null, mock(NotificationChannels.class), idempotencyGuard,
+                new NotificationMetrics(new SimpleMeterRegistry()),
+                new NotificationLookupCache(null, new SimpleMeterRegistry(), false, false, 1, Duration.ofSeconds(1)),
+                new DeliverySchedule(false, "21:00", "08:00", "UTC", Set.of(), "08:00"),
+                event -> { });
+    }
+
+    @Test
+    void orderUpdateAfterDeliveryReminderRearmsThePrimaryNotification() throws Exception {
+        Notification primary = Notification.builder()
+                .id(1L).orderId(42L).customerId(7L).orderReference("ORD-42")
+                .email("a@example.com").type(NotificationType.EMAIL).sent(true)
+                .build();
+        when(repository.findFirstByOrderIdOrderByIdAsc(42L)).thenReturn(Optional.of(primary));
+        when(repository.save(any(Notification.class))).thenAnswer(invocation -> {
+            Notification saved = invocation.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+        Consolidation consolidation = new Consolidation();
+        consolidation.setDeliveryDate(LocalDate.now().plusDays(2));
+        when(enricher.consolidation(42L)).thenReturn(consolidation);
+
+        Notification reminder = service.scheduleDeliveryReminder(42L, NotificationType.EMAIL);
+        Notification updated = service.sendOrderNotification(42L, NotificationType.EMAIL, "Shipped", null);
+
+        // The reminder is a second row for the order; the update still goes to the order's first one
+        assertThat(reminder.getId()).isEqualTo(2L);
+        assertThat(reminder.getMessage()).isEqualTo(consolidation.getDeliveryDate().toString());
+        assertThat(updated.getId()).isEqualTo(1L);
+        verify(repository).rearm(1L, "Shipped");
+        verify(repository, never()).rearm(eq(2L), anyString());
+        verify(outboxStore).enqueue(any(Notification.class), eq(NotificationType.EMAIL), eq(NotificationEvent.DELIVERY_REMINDER), any());
+        verify(outboxStore).enqueue(any(Notification.class), eq(NotificationType.EMAIL), eq(NotificationEvent.ORDER_UPDATE), any());
+        verify(idempotencyGuard).link(anyString(), eq(2L));
+        verify(idempotencyGuard).link(anyString(), eq(1L));
+    }
+
+    @Test
+    void orderStatusKeysFollowTheTransitionNotTheText() {
+        Notification primary = Notification.builder()
+                .id(1L).orderId(42L).customerId(7L).orderReference("ORD-42")
+                .email("a@example.com").type(NotificationType.EMAIL).sent(true)
+                .build();
+        when(repository.findByOrderIdIn(anyCollection())).thenReturn(List.of(primary));
+
+        service.sendOrderStatusNotifications(List.of(new OrderStatusChange(42L, "PACKED", "SHIPPED", "order-events-0@10")));
+        service.sendOrderStatusNotifications(List.of(new OrderStatusChange(42L, "SHIPPED", "PACKED", "order-events-0@11")));
+        service.sendOrderStatusNotifications(List.of(new OrderStatusChange(42L, "PACKED", "SHIPPED", "order-events-0@12")));
+        // A replay of the first batch
+        service.sendOrderStatusNotifications(List.of(new OrderStatusChange(42L, "PACKED", "SHIPPED", "order-events-0@10")));
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyGuard, times(4)).tryClaim(keys.capture());
+        List<String> claimed = keys.getAllValues();
+        // The second PACKED -> SHIPPED renders the same text as the first but is a new change
+        assertThat(Set.copyOf(claimed.subList(0, 3))).hasSize(3);
+        assertThat(claimed.get(3)).isEqualTo(claimed.get(0));
+        verify(repository, times(3)).rearm(1L, "shipped");
+        verify(repository).rearm(1L, "packed");
+        verify(outboxStore, times(4)).enqueueAll(any(), eq(NotificationEvent.ORDER_STATUS), any());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+class NotificationTemplateTest {
+
+    private static final Map<String, Function<Notification, Object>> VARIABLES = Map.of(
+            "orderReference", Notification::getOrderReference,
+            "productName", Notification::getProductName,
+            "price", Notification::getPrice);
+
+    private final Notification notification = Notification.builder()
+            .orderReference("ORD-42").productName("Tea & <Biscuits>").price(new BigDecimal("9.5")).build();
+
+    private static String subject(NotificationTemplate template, Notification notification) {
+        StringBuilder out = new StringBuilder();
+        template.renderSubject(notification, out);
+        return out.toString();
+    }
+
+    private static String body(NotificationTemplate template, Notification notification) {
+        StringBuilder out = new StringBuilder();
+        template.renderBody(notification, out);
+        return out.toString();
+    }
+
+    @Test
+    void splitsTheSubjectLineFromTheBody() {
+        NotificationTemplate template = NotificationTemplate.compile(
+                "Subject: Order ${orderReference}\n\n${productName} costs ${price}", false, VARIABLES);
+
+        assertThat(subject(template, notification)).isEqualTo("Order ORD-42");
+        assertThat(body(template, notification)).isEqualTo("Tea & <Biscuits> costs 9.50");
+    }
+
+    @Test
+    void withoutSubjectLineEverythingIsBody() {
+        NotificationTemplate template = NotificationTemplate.compile("Order ${ orderReference }.", false, VARIABLES);
+
+        assertThat(subject(template, notification)).isEmpty();
+        assertThat(body(template, notification)).isEqualTo("Order ORD-42.");
+    }
+
+    @Test
+    void htmlEscapesBodyValuesOnly() {
+        NotificationTemplate template = NotificationTemplate.compile(
+                "Subject: ${productName}\n<p>${productName}</p>", true, VARIABLES);
+
+        assertThat(template.isHtml()).isTrue();
+        assertThat(subject(template, notification)).isEqualTo("Tea & <Biscuits>");
+        assertThat(body(template, notification)).isEqualTo("<p>Tea &amp; &lt;Biscuits&gt;</p>");
+    }
+
+    @Test
+    void missingValueRendersAsNotAvailable() {
+        NotificationTemplate template = NotificationTemplate.compile("Price: ${price}", false, VARIABLES);
+
+        assertThat(body(template, Notification.builder().build())).isEqualTo("Price: N/A");
+    }
+
+    @Test
+    void badPlaceholdersFailAtCompileTime() {
+        assertThatThrownBy(() -> NotificationTemplate.compile("Hi ${customerName}", false, VARIABLES))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("customerName");
+        assertThatThrownBy(() -> NotificationTemplate.compile("Hi ${orderReference", false, VARIABLES))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unclosed");
+    }
+
+    @Test
+    void localesResolvingToTheSameFileShareOneCompiledTemplate() {
+        NotificationTemplateEngine engine = new NotificationTemplateEngine(
+                new DefaultResourceLoader(), "classpath:templates/notification/", 10);
+
+        NotificationTemplate template = engine.template(NotificationEvent.ORDER_CONFIRMATION, NotificationType.EMAIL, null);
+
+        assertThat(engine.template(NotificationEvent.ORDER_CONFIRMATION, NotificationType.EMAIL, "hi-IN")).isSameAs(template);
+        assertThat(engine.template(NotificationEvent.ORDER_CONFIRMATION, NotificationType.EMAIL, "HI_in")).isSameAs(template);
+        assertThat(engine.template(NotificationEvent.ORDER_CONFIRMATION, NotificationType.EMAIL, "zz-QQ-x-junk")).isSameAs(template);
+    }
+
+    @Test
+    void deliveryReminderTextComesFromTheTemplate() {
+        NotificationTemplateEngine engine = new NotificationTemplateEngine(
+                new DefaultResourceLoader(), "classpath:templates/notification/", 10);
+        Consolidation consolidation = new Consolidation();
+        consolidation.setDeliveryDate(LocalDate.of(2024, 5, 17));
+
+        NotificationTemplateEngine.RenderedMessage sms = engine.render(NotificationEvent.DELIVERY_REMINDER, NotificationType.SMS, null,
+                notification.toBuilder().consolidation(consolidation).build());
+
+        assertThat(sms.body()).isEqualTo("Order ORD-42 arrives today (2024-05-17).\n");
+    }
+}
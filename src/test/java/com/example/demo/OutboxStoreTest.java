@@ -0,0 +1,60 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class OutboxStoreTest {
+
+    private NotificationOutboxRepository outboxRepository;
+    private OutboxStore store;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(NotificationOutboxRepository.class);
+        store = new OutboxStore(outboxRepository, mock(NotificationRepository.class), mock(NotificationBatchWriter.class),
+                new NotificationDigestPolicy(true, Duration.ofSeconds(10)), new NotificationPriorities(),
+                new DeliverySchedule(false, "21:00", "08:00", "UTC", Set.of(), "08:00"),
+                new DeliveryTimingWheel(null, event -> { }, 1000, 64, Duration.ofMinutes(10)),
+                Duration.ofMinutes(5), Duration.ofSeconds(30), 10);
+    }
+
+    private static NotificationOutbox row(long id, String coalesceKey) {
+        return NotificationOutbox.builder()
+                .id(id).notificationId(id).channel(NotificationType.EMAIL).event(NotificationEvent.ORDER_UPDATE)
+                .coalesceKey(coalesceKey).status(OutboxStatus.PENDING).availableAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void digestSweepOnlyTakesRowsDueWithinTheWindow() {
+        when(outboxRepository.lockDue(any(), anyCollection(), anyInt()))
+                .thenAnswer(invocation -> ((Collection<String>) invocation.getArgument(1)).contains(NotificationEvent.ORDER_UPDATE.name())
+                        ? new ArrayList<>(List.of(row(1, "7:ORD-42:EMAIL:ORDER_UPDATE")))
+                        : new ArrayList<>());
+        LocalDateTime before = LocalDateTime.now();
+
+        store.claim(10);
+
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).lockCoalescing(eq(List.of("7:ORD-42:EMAIL:ORDER_UPDATE")), eq(List.of(1L)), until.capture());
+        assertThat(until.getValue()).isBetween(before.plusSeconds(10), LocalDateTime.now().plusSeconds(10));
+    }
+}
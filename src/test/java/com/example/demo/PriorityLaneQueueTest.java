@@ -0,0 +1,78 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PriorityLaneQueueTest {
+
+    private static NotificationChannel.Delivery delivery(long id, NotificationEvent event) {
+        NotificationOutbox outbox = NotificationOutbox.builder().id(id).channel(NotificationType.EMAIL).event(event).build();
+        return new NotificationChannel.Delivery(outbox, Notification.builder().id(id).build());
+    }
+
+    private static void fill(PriorityLaneQueue queue, NotificationEvent event, int count) {
+        for (int i = 0; i < count; i++) {
+            assertThat(queue.offer(delivery(i, event))).isTrue();
+        }
+    }
+
+    @Test
+    void capacityIsPerClass() {
+        PriorityLaneQueue queue = new PriorityLaneQueue(2, 4, new NotificationPriorities());
+        fill(queue, NotificationEvent.CAMPAIGN, 2);
+
+        assertThat(queue.offer(delivery(3, NotificationEvent.CAMPAIGN))).isFalse();
+        assertThat(queue.offer(delivery(4, NotificationEvent.ORDER_CONFIRMATION))).isTrue();
+        assertThat(queue.remainingCapacity()).isEqualTo(3);
+    }
+
+    @Test
+    void batchesHoldOneClassAndFollowTheWeights() throws InterruptedException {
+        // Weights 6 / 3 / 1: over ten batches each class gets its share
+        PriorityLaneQueue queue = new PriorityLaneQueue(100, 100, new NotificationPriorities());
+        fill(queue, NotificationEvent.ORDER_CONFIRMATION, 20);
+        fill(queue, NotificationEvent.ORDER_UPDATE, 20);
+        fill(queue, NotificationEvent.CAMPAIGN, 20);
+
+        List<NotificationPriority> taken = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            List<NotificationChannel.Delivery> batch = new ArrayList<>();
+            NotificationPriority priority = queue.take(batch, 1, 0);
+            assertThat(batch).singleElement()
+                    .satisfies(d -> assertThat(NotificationPriority.of(d.outbox().getEvent())).isEqualTo(priority));
+            taken.add(priority);
+            queue.done(priority);
+        }
+
+        assertThat(taken).filteredOn(p -> p == NotificationPriority.TRANSACTIONAL).hasSize(6);
+        assertThat(taken).filteredOn(p -> p == NotificationPriority.UPDATE).hasSize(3);
+        assertThat(taken).filteredOn(p -> p == NotificationPriority.BULK).hasSize(1);
+        assertThat(taken.get(0)).isEqualTo(NotificationPriority.TRANSACTIONAL);
+    }
+
+    @Test
+    void bulkStopsAtItsWorkerShare() throws InterruptedException {
+        // Bulk may hold half of 2 workers
+        PriorityLaneQueue queue = new PriorityLaneQueue(100, 2, new NotificationPriorities());
+        fill(queue, NotificationEvent.CAMPAIGN, 4);
+
+        List<NotificationChannel.Delivery> batch = new ArrayList<>();
+        assertThat(queue.take(batch, 1, 0)).isEqualTo(NotificationPriority.BULK);
+        assertThat(queue.take(new ArrayList<>(), 1, 0)).isNull();
+
+        queue.done(NotificationPriority.BULK);
+        assertThat(queue.take(new ArrayList<>(), 1, 0)).isEqualTo(NotificationPriority.BULK);
+        assertThat(queue.size(NotificationPriority.BULK)).isEqualTo(2);
+    }
+
+    @Test
+    void takeTimesOutWhenEmpty() throws InterruptedException {
+        PriorityLaneQueue queue = new PriorityLaneQueue(10, 1, new NotificationPriorities());
+
+        assertThat(queue.take(new ArrayList<>(), 10, 20)).isNull();
+    }
+}
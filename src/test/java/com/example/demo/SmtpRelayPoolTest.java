@@ -0,0 +1,88 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mock.env.MockEnvironment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SmtpRelayPoolTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static MockEnvironment relays(String... hosts) {
+        MockEnvironment environment = new MockEnvironment();
+        for (int i = 0; i < hosts.length; i++) {
+            environment.setProperty("notification.channel.email.relays[" + i + "].name", "relay-" + hosts[i]);
+            environment.setProperty("notification.channel.email.relays[" + i + "].host", hosts[i]);
+        }
+        return environment;
+    }
+
+    @Test
+    void fallsBackToTheSpringMailServer() {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("smtp.example.com");
+        sender.setPort(2525);
+
+        SmtpRelayPool.Relay relay = new SmtpRelayPool(sender, new MockEnvironment(), registry).pick();
+
+        assertThat(relay.name()).isEqualTo("default");
+        assertThat(relay.host()).isEqualTo("smtp.example.com");
+        assertThat(relay.port()).isEqualTo(2525);
+    }
+
+    @Test
+    void noRelayAtAllIsAnError() {
+        SmtpRelayPool pool = new SmtpRelayPool(mock(JavaMailSender.class), new MockEnvironment(), registry);
+
+        assertThatThrownBy(pool::pick).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void failingRelaySitsOutItsCooldown() {
+        SmtpRelayPool pool = new SmtpRelayPool(mock(JavaMailSender.class), relays("a.example", "b.example"), registry);
+        SmtpRelayPool.Relay bad = pool.pick();
+        for (int i = 0; i < 3; i++) {
+            pool.failed(bad);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(pool.pick()).isNotSameAs(bad);
+        }
+        assertThat(registry.get("notification.email.relay.health").tag("relay", bad.name()).gauge().value()).isLessThan(1.0);
+    }
+
+    @Test
+    void allCoolingDownProbesTheFirstBack() {
+        SmtpRelayPool pool = new SmtpRelayPool(mock(JavaMailSender.class), relays("a.example", "b.example"), registry);
+        SmtpRelayPool.Relay first = pool.pick();
+        for (int i = 0; i < 3; i++) {
+            pool.failed(first);
+        }
+        SmtpRelayPool.Relay second = pool.pick();
+        for (int i = 0; i < 3; i++) {
+            pool.failed(second);
+        }
+
+        assertThat(pool.pick()).isSameAs(first);
+    }
+
+    @Test
+    void successBetweenFailuresAvoidsTheCooldown() {
+        SmtpRelayPool pool = new SmtpRelayPool(mock(JavaMailSender.class), relays("a.example"), registry);
+        SmtpRelayPool.Relay relay = pool.pick();
+
+        pool.failed(relay);
+        pool.failed(relay);
+        pool.succeeded(relay);
+        pool.failed(relay);
+
+        assertThat(relay.score(System.nanoTime())).isGreaterThan(0);
+    }
+}
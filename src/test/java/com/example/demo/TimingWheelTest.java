@@ -0,0 +1,60 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    @Test
+    void firesOnceWhenTheTickIsReached() {
+        TimingWheel wheel = new TimingWheel(8, 100);
+
+        assertThat(wheel.add(103)).isTrue();
+        assertThat(wheel.advanceTo(102)).isFalse();
+        assertThat(wheel.advanceTo(103)).isTrue();
+        assertThat(wheel.advanceTo(104)).isFalse();
+    }
+
+    @Test
+    void laterRotationsCascadeIntoTheCurrentOne() {
+        TimingWheel wheel = new TimingWheel(8, 100);
+
+        // Three rotations ahead
+        assertThat(wheel.add(125)).isTrue();
+        assertThat(wheel.advanceTo(124)).isFalse();
+        assertThat(wheel.advanceTo(125)).isTrue();
+    }
+
+    @Test
+    void ticksSharingASlotInDifferentRotationsBothFire() {
+        TimingWheel wheel = new TimingWheel(8, 100);
+        wheel.add(105);
+        wheel.add(113);
+
+        assertThat(wheel.advanceTo(105)).isTrue();
+        assertThat(wheel.advanceTo(112)).isFalse();
+        assertThat(wheel.advanceTo(113)).isTrue();
+    }
+
+    @Test
+    void refusesTicksAlreadyDueOrBeyondTheSpan() {
+        TimingWheel wheel = new TimingWheel(8, 100);
+
+        assertThat(wheel.add(100)).isFalse();
+        assertThat(wheel.add(99)).isFalse();
+        // The last rotation held starts at (100 / 8 + 7) * 8 = 152
+        assertThat(wheel.add(159)).isTrue();
+        assertThat(wheel.add(160)).isFalse();
+    }
+
+    @Test
+    void jumpPastTheWholeSpanClearsAndReportsDue() {
+        TimingWheel wheel = new TimingWheel(8, 100);
+        wheel.add(150);
+
+        assertThat(wheel.advanceTo(100 + 64)).isTrue();
+        assertThat(wheel.advanceTo(100 + 200)).isTrue();
+        assertThat(wheel.advanceTo(100 + 201)).isFalse();
+    }
+}